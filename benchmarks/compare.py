@@ -0,0 +1,94 @@
+#!/usr/bin/env python3
+"""Compares two JMH JSON result files and fails on regressions.
+
+Usage: compare.py BASELINE.json CURRENT.json [--time-threshold 10] [--alloc-threshold 5]
+
+Benchmarks are matched by name and parameters. A benchmark regresses when its score is more than
+--time-threshold percent worse than the baseline (slower for time modes, lower for throughput), or when
+it allocates more than --alloc-threshold percent more bytes per operation (gc.alloc.rate.norm, present
+when both runs used -prof gc). Exits with status 1 if any benchmark regressed.
+"""
+
+import argparse
+import json
+import sys
+
+ALLOC_METRIC = "gc.alloc.rate.norm"
+# allocations below this many bytes per operation are noise (TLAB and blackhole effects)
+ALLOC_FLOOR = 16
+
+
+def load(path):
+    with open(path) as f:
+        results = json.load(f)
+    return {key(r): r for r in results}
+
+
+def key(result):
+    params = result.get("params") or {}
+    suffix = ",".join(f"{k}={params[k]}" for k in sorted(params))
+    name = result["benchmark"].replace("com.chris.cutils.benchmarks.", "")
+    return f"{name}({suffix})" if suffix else name
+
+
+def change(before, after, higher_is_better):
+    if before == 0:
+        # any move away from zero in the worse direction is an unbounded regression
+        got_worse = after < 0 if higher_is_better else after > 0
+        return float("inf") if got_worse else 0.0
+    delta = (after - before) / before * 100
+    return -delta if higher_is_better else delta
+
+
+def alloc(result):
+    metric = (result.get("secondaryMetrics") or {}).get(ALLOC_METRIC)
+    return metric["score"] if metric else None
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--time-threshold", type=float, default=10.0, help="allowed slowdown in percent")
+    parser.add_argument("--alloc-threshold", type=float, default=5.0, help="allowed allocation growth in percent")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+    regressions = 0
+    width = max((len(k) for k in current), default=10)
+    print(f"{'benchmark':<{width}}  {'baseline':>12}  {'current':>12}  {'unit':<8}  {'worse':>8}  {'alloc B/op':>21}")
+    for name in sorted(current):
+        after = current[name]
+        before = baseline.get(name)
+        metric = after["primaryMetric"]
+        if before is None:
+            print(f"{name:<{width}}  {'-':>12}  {metric['score']:>12.3f}  {metric['scoreUnit']:<8}  {'new':>8}")
+            continue
+        higher_is_better = after["mode"] == "thrpt"
+        worse = change(before["primaryMetric"]["score"], metric["score"], higher_is_better)
+        flags = []
+        if worse > args.time_threshold:
+            flags.append("TIME")
+
+        alloc_before, alloc_after = alloc(before), alloc(after)
+        alloc_text = ""
+        if alloc_before is not None and alloc_after is not None:
+            alloc_text = f"{alloc_before:>10.0f} -> {alloc_after:<8.0f}"
+            if alloc_after > ALLOC_FLOOR and change(alloc_before, alloc_after, False) > args.alloc_threshold:
+                flags.append("ALLOC")
+
+        if flags:
+            regressions += 1
+        print(f"{name:<{width}}  {before['primaryMetric']['score']:>12.3f}  {metric['score']:>12.3f}  "
+              f"{metric['scoreUnit']:<8}  {worse:>+7.1f}%  {alloc_text:>21}  {' '.join(flags)}")
+
+    for name in sorted(set(baseline) - set(current)):
+        print(f"{name:<{width}}  missing from current run")
+
+    print(f"\n{regressions} regression(s) past {args.time_threshold}% time / {args.alloc_threshold}% allocation")
+    return 1 if regressions else 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,133 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CBinaryCodec;
+import com.chris.cutils.CDecimal;
+import com.chris.cutils.CDecimalArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of sorted dates and decimal columns with {@link CBinaryCodec}, against Java serialization of
+ * the same decimals. Scores are per array of {@code size} values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CBinaryCodecBenchmark {
+  
+  @Param({"1000", "100000"})
+  public int size;
+  
+  @Param({"heap", "direct"})
+  public String buffer;
+  
+  private long[] times;
+  private CDecimal[] decimals;
+  private CDecimalArray decimalArray;
+  private ByteBuffer out;
+  private ByteBuffer encodedTimes;
+  private ByteBuffer encodedDecimals;
+  private byte[] serializedDecimals;
+  
+  @Setup
+  public void setup() throws IOException {
+    SplittableRandom random = new SplittableRandom(42);
+    this.times = new long[this.size];
+    this.decimals = new CDecimal[this.size];
+    long time = Inputs.randomTime(random);
+    for (int i = 0; i < this.size; i++) {
+      time += random.nextLong(60_000);
+      this.times[i] = time;
+      this.decimals[i] = Inputs.randomDecimal(random, "small", 2);
+    }
+    this.decimalArray = CDecimalArray.of(this.decimals, 2, RoundingMode.UNNECESSARY);
+    this.out = allocate(this.size * 20 + 64);
+    
+    this.encodedTimes = allocate(this.size * 10 + 16);
+    CBinaryCodec.writeDates(this.encodedTimes, this.times);
+    this.encodedTimes.flip();
+    this.encodedDecimals = allocate(this.size * 10 + 16);
+    CBinaryCodec.writeDecimals(this.encodedDecimals, this.decimalArray);
+    this.encodedDecimals.flip();
+    this.serializedDecimals = serialize();
+  }
+  
+  private ByteBuffer allocate(int capacity) {
+    return this.buffer.equals("direct") ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+  }
+  
+  @Benchmark
+  public int writeDates() {
+    this.out.clear();
+    CBinaryCodec.writeDates(this.out, this.times);
+    return this.out.position();
+  }
+  
+  @Benchmark
+  public long[] readDates() {
+    return CBinaryCodec.readDates(this.encodedTimes.duplicate());
+  }
+  
+  @Benchmark
+  public int writeDecimalArray() {
+    this.out.clear();
+    CBinaryCodec.writeDecimals(this.out, this.decimalArray);
+    return this.out.position();
+  }
+  
+  @Benchmark
+  public CDecimalArray readDecimalArray() {
+    return CBinaryCodec.readDecimals(this.encodedDecimals.duplicate());
+  }
+  
+  @Benchmark
+  public int writeDecimals() {
+    this.out.clear();
+    for (CDecimal decimal : this.decimals) {
+      CBinaryCodec.writeDecimal(this.out, decimal);
+    }
+    return this.out.position();
+  }
+  
+  @Benchmark
+  public byte[] serializeDecimals() throws IOException {
+    return serialize();
+  }
+  
+  @Benchmark
+  public Object deserializeDecimals() throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(this.serializedDecimals))) {
+      return in.readObject();
+    }
+  }
+  
+  private byte[] serialize() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(this.decimals);
+    }
+    return bytes.toByteArray();
+  }
+}
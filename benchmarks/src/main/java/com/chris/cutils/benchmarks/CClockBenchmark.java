@@ -0,0 +1,72 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CClock;
+import com.chris.cutils.CDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the current time through {@link CClock#SYSTEM} and a one-millisecond {@link CClock#coarse(long) coarse}
+ * clock, directly and through {@link CDate#currentServerDate()} and {@link CDate#currentDate(ZoneId)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CClockBenchmark {
+  
+  @Param({"system", "coarse"})
+  public String clock;
+  
+  private final ZoneId offset = ZoneOffset.ofHours(3);
+  private final ZoneId region = ZoneId.of("Europe/Paris");
+  private CClock source;
+  
+  @Setup
+  public void setup() {
+    this.source = this.clock.equals("coarse") ? CClock.coarse(1) : CClock.SYSTEM;
+    CDate.setClock(this.source);
+  }
+  
+  @TearDown
+  public void tearDown() {
+    CDate.setClock(CClock.SYSTEM);
+    if (this.source instanceof CClock.Coarse coarse) coarse.close();
+  }
+  
+  @Benchmark
+  public long currentTimeMillis() {
+    return this.source.currentTimeMillis();
+  }
+  
+  @Benchmark
+  public CDate currentServerDate() {
+    return CDate.currentServerDate();
+  }
+  
+  @Benchmark
+  public CDate currentDateOffset() {
+    return CDate.currentDate(this.offset);
+  }
+  
+  @Benchmark
+  public CDate currentDateRegion() {
+    return CDate.currentDate(this.region);
+  }
+}
@@ -0,0 +1,109 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDate;
+import com.chris.cutils.CDateFormatter;
+import com.chris.cutils.CDateParser;
+import com.chris.cutils.CDateTimeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting, parsing, calendar arithmetic and timeline queries of {@link CDate}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CDateBenchmark {
+  
+  // CDate.parse needs a time of day, so every pattern has one; toDateString covers the date-only layout
+  @Param({"dd/MM/yyyy HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss", "dd MMM yyyy HH:mm"})
+  public String pattern;
+  
+  private CDate date;
+  private String text;
+  private String isoText;
+  private CDateTimeline timeline;
+  private long from;
+  private long to;
+  private final char[] chars = new char[CDateFormatter.DATE_TIME_LENGTH];
+  
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    this.date = new CDate(Inputs.randomTime(random));
+    this.text = this.date.format(this.pattern);
+    this.isoText = this.date.format("yyyy-MM-dd'T'HH:mm:ss");
+    long[] times = new long[100_000];
+    for (int i = 0; i < times.length; i++) {
+      times[i] = Inputs.randomTime(random);
+    }
+    this.timeline = CDateTimeline.of(times);
+    this.from = this.timeline.get(times.length / 4);
+    this.to = this.timeline.get(times.length / 2);
+  }
+  
+  @Benchmark
+  public String format() {
+    return this.date.format(this.pattern);
+  }
+  
+  @Benchmark
+  public String toDateString() {
+    return this.date.toDateString();
+  }
+  
+  @Benchmark
+  public int formatDateTimeToChars() {
+    return CDateFormatter.formatDateTime(this.date.getTime(), this.chars, 0);
+  }
+  
+  @Benchmark
+  public CDate parse() {
+    return CDate.parse(this.text, this.pattern);
+  }
+  
+  @Benchmark
+  public long parseIso() {
+    return CDateParser.parse(CDateParser.Layout.ISO, this.isoText);
+  }
+  
+  @Benchmark
+  public CDate addMonth() {
+    return this.date.addMonth(7);
+  }
+  
+  @Benchmark
+  public int getYear() {
+    return this.date.getYear();
+  }
+  
+  @Benchmark
+  public int compareTo() {
+    return this.date.compareTo(CDate.EPOCH_ZERO);
+  }
+  
+  @Benchmark
+  public int timelineCount() {
+    return this.timeline.count(this.from, this.to);
+  }
+  
+  @Benchmark
+  public int[] timelineCountPerDay() {
+    return this.timeline.bucketCounts(this.from, this.from + 30 * CDate.DAY_IN_MS, CDate.DAY_IN_MS);
+  }
+}
@@ -0,0 +1,71 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDate;
+import com.chris.cutils.CDateOffset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fused {@link CDateOffset} shift against the equivalent chain of {@link CDate} calls, for time-only and calendar
+ * offsets, on one date and in bulk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CDateOffsetBenchmark {
+  
+  @Param({"time", "calendar"})
+  public String offset;
+  
+  private CDateOffset shift;
+  private CDate date;
+  private long[] times;
+  private long[] work;
+  
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    this.shift = this.offset.equals("calendar")
+        ? CDateOffset.of(1, 2, 3, 4, 5, 6, 7)
+        : CDateOffset.of(0, 0, 3, 4, 5, 6, 7);
+    this.date = new CDate(Inputs.randomTime(random));
+    this.times = new long[1000];
+    for (int i = 0; i < this.times.length; i++) {
+      this.times[i] = Inputs.randomTime(random);
+    }
+    this.work = new long[this.times.length];
+  }
+  
+  @Benchmark
+  public CDate fused() {
+    return this.date.add(this.shift);
+  }
+  
+  @Benchmark
+  public CDate chained() {
+    return this.date.addYear(this.shift.getYears()).addMonth(this.shift.getMonths()).addDay(this.shift.getDays())
+        .addMillis(this.shift.getMillis());
+  }
+  
+  @Benchmark
+  public long[] fusedArray() {
+    System.arraycopy(this.times, 0, this.work, 0, this.times.length);
+    this.shift.applyTo(this.work);
+    return this.work;
+  }
+}
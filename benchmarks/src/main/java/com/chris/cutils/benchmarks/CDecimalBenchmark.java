@@ -0,0 +1,110 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDecimal;
+import com.chris.cutils.CDecimalFormat;
+import com.chris.cutils.CDecimalParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arithmetic, parsing and formatting of {@link CDecimal} across value magnitudes and scales.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CDecimalBenchmark {
+  
+  @Param({"small", "large", "huge"})
+  public String magnitude;
+  
+  @Param({"2", "8"})
+  public int scale;
+  
+  private CDecimal a;
+  private CDecimal b;
+  private CDecimal divisor;
+  private String text;
+  private byte[] bytes;
+  private final CDecimalParser parser = new CDecimalParser();
+  private final CDecimalFormat format = CDecimalFormat.of("#,##0.00");
+  private final StringBuilder out = new StringBuilder();
+  
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    this.a = Inputs.randomDecimal(random, this.magnitude, this.scale);
+    this.b = Inputs.randomDecimal(random, this.magnitude, this.scale);
+    this.divisor = Inputs.randomDecimal(random, "small", 2);
+    this.text = this.a.getValue().toPlainString();
+    this.bytes = this.text.getBytes(StandardCharsets.ISO_8859_1);
+  }
+  
+  @Benchmark
+  public CDecimal add() {
+    return this.a.add(this.b);
+  }
+  
+  @Benchmark
+  public CDecimal subtract() {
+    return this.a.subtract(this.b);
+  }
+  
+  @Benchmark
+  public CDecimal multiply() {
+    return this.a.multiply(this.divisor);
+  }
+  
+  @Benchmark
+  public CDecimal divide() {
+    return this.a.divide(this.divisor, RoundingMode.HALF_UP);
+  }
+  
+  @Benchmark
+  public int compareTo() {
+    return this.a.compareTo(this.b);
+  }
+  
+  @Benchmark
+  public int hashCodeOf() {
+    return this.a.hashCode();
+  }
+  
+  @Benchmark
+  public CDecimal valueOfString() {
+    return CDecimal.valueOf(this.text);
+  }
+  
+  @Benchmark
+  public boolean tryParseBytes() {
+    return this.parser.tryParse(this.bytes, 0, this.bytes.length);
+  }
+  
+  @Benchmark
+  public String toStringOf() {
+    return this.a.toString();
+  }
+  
+  @Benchmark
+  public int formatTo() {
+    this.out.setLength(0);
+    this.format.formatTo(this.a, this.out);
+    return this.out.length();
+  }
+}
@@ -0,0 +1,127 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDecimal;
+import com.chris.cutils.CDecimalAdder;
+import com.chris.cutils.CDecimalArray;
+import com.chris.cutils.CDecimalMap;
+import com.chris.cutils.CDecimalSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Columnar arithmetic, summing and keyed lookups over many {@link CDecimal} values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CDecimalCollectionsBenchmark {
+  
+  @Param({"1000", "100000"})
+  public int size;
+  
+  private CDecimal[] values;
+  private CDecimalArray array;
+  private CDecimalArray other;
+  private CDecimalMap<Integer> map;
+  private CDecimalSet set;
+  private HashMap<CDecimal, Integer> hashMap;
+  private CDecimal[] probes;
+  private int next;
+  
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    this.values = new CDecimal[this.size];
+    CDecimal[] others = new CDecimal[this.size];
+    for (int i = 0; i < this.size; i++) {
+      this.values[i] = Inputs.randomDecimal(random, "small", 2);
+      others[i] = Inputs.randomDecimal(random, "small", 2);
+    }
+    this.array = CDecimalArray.of(this.values, 2, RoundingMode.UNNECESSARY);
+    this.other = CDecimalArray.of(others, 2, RoundingMode.UNNECESSARY);
+    this.map = new CDecimalMap<>(this.size);
+    this.set = new CDecimalSet();
+    this.hashMap = new HashMap<>();
+    for (int i = 0; i < this.size; i++) {
+      this.map.put(this.values[i], i);
+      this.set.add(this.values[i]);
+      this.hashMap.put(this.values[i], i);
+    }
+    // half of the probes hit, with a different scale than the stored key
+    this.probes = new CDecimal[1024];
+    for (int i = 0; i < this.probes.length; i++) {
+      this.probes[i] = i % 2 == 0
+          ? this.values[random.nextInt(this.size)].setScale(4)
+          : Inputs.randomDecimal(random, "small", 3);
+    }
+  }
+  
+  private CDecimal nextProbe() {
+    return this.probes[this.next++ & (this.probes.length - 1)];
+  }
+  
+  @Benchmark
+  public CDecimal arraySum() {
+    return this.array.sum();
+  }
+  
+  @Benchmark
+  public CDecimal parallelArraySum() {
+    return this.array.parallel().sum();
+  }
+  
+  @Benchmark
+  public CDecimalArray arrayMultiply() {
+    return this.array.multiply(this.other);
+  }
+  
+  @Benchmark
+  public CDecimal adderSum() {
+    CDecimalAdder adder = new CDecimalAdder(2);
+    for (CDecimal value : this.values) {
+      adder.add(value);
+    }
+    return adder.sum();
+  }
+  
+  @Benchmark
+  public CDecimal loopSum() {
+    CDecimal sum = CDecimal.ZERO;
+    for (CDecimal value : this.values) {
+      sum = sum.add(value);
+    }
+    return sum;
+  }
+  
+  @Benchmark
+  public Integer mapGet() {
+    return this.map.get(nextProbe());
+  }
+  
+  @Benchmark
+  public boolean setContains() {
+    return this.set.contains(nextProbe());
+  }
+  
+  @Benchmark
+  public Integer hashMapGet() {
+    return this.hashMap.get(nextProbe());
+  }
+}
@@ -0,0 +1,87 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDateParser;
+import com.chris.cutils.CDelimitedReader;
+import com.chris.cutils.CDelimitedReader.Column;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a generated file of dates and amounts with {@link CDelimitedReader}. Scores are per file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CDelimitedReaderBenchmark {
+  
+  @Param({"100000", "1000000"})
+  public int rows;
+  
+  private Path file;
+  private final CDelimitedReader reader = new CDelimitedReader(',', true,
+      Column.date(CDateParser.Layout.DATE_TIME), Column.skip(), Column.decimal(2));
+  
+  @Setup
+  public void setup() throws IOException {
+    SplittableRandom random = new SplittableRandom(42);
+    this.file = Files.createTempFile("cutils-bench", ".csv");
+    try (BufferedWriter out = Files.newBufferedWriter(this.file)) {
+      out.write("date,account,amount\n");
+      for (int i = 0; i < this.rows; i++) {
+        out.write(String.format("%02d/%02d/%04d %02d:%02d:%02d,ACC-%06d,%d.%02d\n",
+            random.nextInt(1, 29), random.nextInt(1, 13), random.nextInt(2000, 2040),
+            random.nextInt(24), random.nextInt(60), random.nextInt(60),
+            random.nextInt(1_000_000), random.nextInt(100_000), random.nextInt(100)));
+      }
+    }
+  }
+  
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(this.file);
+  }
+  
+  @Benchmark
+  public int read() throws IOException {
+    return this.reader.read(this.file).rows();
+  }
+  
+  /**
+   * The per-line {@code String} parsing the reader replaces.
+   */
+  @Benchmark
+  public long readLines() throws IOException {
+    long sum = 0;
+    try (BufferedReader in = Files.newBufferedReader(this.file)) {
+      in.readLine();
+      for (String line = in.readLine(); line != null; line = in.readLine()) {
+        String[] fields = line.split(",");
+        sum += CDateParser.parse(CDateParser.Layout.DATE_TIME, fields[0]);
+        sum += new BigDecimal(fields[2]).unscaledValue().longValue();
+      }
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,79 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDate;
+import com.chris.cutils.CDuration;
+import com.chris.cutils.CPeriod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arithmetic and comparisons of {@link CDuration}, from seconds to years.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CDurationBenchmark {
+  
+  @Param({"1000", "86400000", "31536000000"})
+  public long millis;
+  
+  private CDuration a;
+  private CDuration b;
+  private CPeriod period;
+  private CDate start;
+  
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    this.a = new CDuration(Duration.ofMillis(random.nextLong(this.millis)));
+    this.b = new CDuration(Duration.ofMillis(random.nextLong(this.millis)));
+    this.start = new CDate(Inputs.randomTime(random));
+    this.period = new CPeriod(this.start, this.a);
+  }
+  
+  @Benchmark
+  public CDuration add() {
+    return this.a.add(this.b);
+  }
+  
+  @Benchmark
+  public CDuration multiply() {
+    return this.a.multiply(3);
+  }
+  
+  @Benchmark
+  public int compareTo() {
+    return this.a.compareTo(this.b);
+  }
+  
+  @Benchmark
+  public long toMinutes() {
+    return this.a.toMinutes();
+  }
+  
+  @Benchmark
+  public CDuration ofPeriod() {
+    return new CDuration(this.period);
+  }
+  
+  @Benchmark
+  public CPeriod toPeriod() {
+    return this.a.toPeriod(this.start);
+  }
+}
@@ -0,0 +1,86 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDuration;
+import com.chris.cutils.CDurationHistogram;
+import com.chris.cutils.CDurationRecorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording latencies up to an hour into a {@link CDurationHistogram} and a {@link CDurationRecorder}, alone and
+ * from four threads, and reading percentiles and interval histograms, over the number of significant digits.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CDurationHistogramBenchmark {
+  
+  private static final int SAMPLES = 1024;
+  
+  @Param({"2", "3"})
+  public int digits;
+  
+  private final long[] nanos = new long[SAMPLES];
+  private CDurationHistogram histogram;
+  private CDurationHistogram recycled;
+  private CDurationRecorder recorder;
+  private int next;
+  
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    CDuration highest = CDuration.ofHours(1);
+    for (int i = 0; i < SAMPLES; i++) {
+      // mostly sub-millisecond, with a long tail
+      this.nanos[i] = (long) (1000 * Math.exp(random.nextDouble() * 20)) % highest.toNanos();
+    }
+    this.histogram = new CDurationHistogram(highest, this.digits);
+    this.recorder = new CDurationRecorder(highest, this.digits);
+    for (long value : this.nanos) {
+      this.histogram.record(value);
+    }
+    this.recycled = this.recorder.intervalHistogram();
+  }
+  
+  @Benchmark
+  public void record() {
+    this.histogram.record(this.nanos[this.next++ & (SAMPLES - 1)]);
+  }
+  
+  @Benchmark
+  public void recorderRecord() {
+    this.recorder.record(this.nanos[this.next++ & (SAMPLES - 1)]);
+  }
+  
+  @Benchmark
+  @Threads(4)
+  public void recorderRecordContended() {
+    this.recorder.record(this.nanos[this.next++ & (SAMPLES - 1)]);
+  }
+  
+  @Benchmark
+  public CDuration percentile() {
+    return this.histogram.getValueAtPercentile(99.9);
+  }
+  
+  @Benchmark
+  public CDurationHistogram intervalHistogram() {
+    return this.recorder.intervalHistogram(this.recycled);
+  }
+}
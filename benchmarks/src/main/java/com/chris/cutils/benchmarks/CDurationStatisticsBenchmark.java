@@ -0,0 +1,81 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDuration;
+import com.chris.cutils.CDurationStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summing and summarizing durations with {@link CDurationStatistics} against folding them with
+ * {@link CDuration#add(CDuration)}, over the number of durations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CDurationStatisticsBenchmark {
+  
+  @Param({"1000", "100000"})
+  public int size;
+  
+  private CDuration[] durations;
+  private long[] millis;
+  
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    this.durations = new CDuration[this.size];
+    this.millis = new long[this.size];
+    for (int i = 0; i < this.size; i++) {
+      this.millis[i] = random.nextLong(1, 86_400_000);
+      this.durations[i] = CDuration.ofMillis(this.millis[i]);
+    }
+  }
+  
+  @Benchmark
+  public CDuration foldAdd() {
+    CDuration sum = CDuration.ZERO;
+    for (CDuration duration : this.durations) {
+      sum = sum.add(duration);
+    }
+    return sum;
+  }
+  
+  @Benchmark
+  public CDurationStatistics accept() {
+    CDurationStatistics statistics = new CDurationStatistics();
+    for (CDuration duration : this.durations) {
+      statistics.accept(duration);
+    }
+    return statistics;
+  }
+  
+  @Benchmark
+  public CDurationStatistics acceptMillis() {
+    CDurationStatistics statistics = new CDurationStatistics();
+    for (long value : this.millis) {
+      statistics.acceptMillis(value);
+    }
+    return statistics;
+  }
+  
+  @Benchmark
+  public CDurationStatistics collect() {
+    return Arrays.stream(this.durations).collect(CDurationStatistics.summarizing());
+  }
+}
@@ -0,0 +1,122 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDate;
+import com.chris.cutils.CPeriod;
+import com.chris.cutils.CPeriodIndex;
+import com.chris.cutils.CPeriodSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-period predicates and durations, and queries over many periods: a linear scan of {@link CPeriod#overlaps}
+ * against {@link CPeriodIndex}, and {@link CPeriodSet} algebra.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CPeriodBenchmark {
+  
+  @Param({"100", "10000", "1000000"})
+  public int periodCount;
+  
+  private CPeriod period;
+  private CPeriod other;
+  private CDate date;
+  private List<CPeriod> periods;
+  private CPeriodIndex index;
+  private CPeriodSet set;
+  private CPeriodSet otherSet;
+  
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    this.periods = new ArrayList<>(this.periodCount);
+    List<CPeriod> others = new ArrayList<>(this.periodCount);
+    for (int i = 0; i < this.periodCount; i++) {
+      this.periods.add(randomPeriod(random));
+      others.add(randomPeriod(random));
+    }
+    this.period = this.periods.get(0);
+    this.other = others.get(0);
+    this.date = new CDate(Inputs.randomTime(random));
+    this.index = CPeriodIndex.of(this.periods);
+    this.set = CPeriodSet.of(this.periods);
+    this.otherSet = CPeriodSet.of(others);
+  }
+  
+  private static CPeriod randomPeriod(SplittableRandom random) {
+    long start = Inputs.randomTime(random);
+    return new CPeriod(new CDate(start), new CDate(start + random.nextLong(30 * CDate.DAY_IN_MS)));
+  }
+  
+  @Benchmark
+  public boolean overlaps() {
+    return this.period.overlaps(this.other);
+  }
+  
+  @Benchmark
+  public boolean contains() {
+    return this.period.contains(this.date);
+  }
+  
+  @Benchmark
+  public long durationInDays() {
+    return this.period.getDurationInDays();
+  }
+  
+  @Benchmark
+  public long durationInMonths() {
+    return this.period.getDurationInMonths();
+  }
+  
+  @Benchmark
+  public int scanOverlapping() {
+    int count = 0;
+    for (CPeriod p : this.periods) {
+      if (p.overlaps(this.other)) count++;
+    }
+    return count;
+  }
+  
+  @Benchmark
+  public int indexCountOverlapping() {
+    return this.index.countOverlapping(this.other);
+  }
+  
+  @Benchmark
+  public int[] indexContainingIds() {
+    return this.index.containingIds(this.date.getTime());
+  }
+  
+  @Benchmark
+  public CPeriodSet setUnion() {
+    return this.set.union(this.otherSet);
+  }
+  
+  @Benchmark
+  public CPeriodSet setIntersect() {
+    return this.set.intersect(this.otherSet);
+  }
+  
+  @Benchmark
+  public boolean setContains() {
+    return this.set.contains(this.date);
+  }
+}
@@ -0,0 +1,73 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDate;
+import com.chris.cutils.CPeriod;
+import com.chris.cutils.CPeriodLengths;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranking periods by length with {@link CPeriodLengths} against sorting them with
+ * {@link CPeriod#lengthComparator()}, over the number of periods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CPeriodLengthsBenchmark {
+  
+  @Param({"1000", "100000"})
+  public int periodCount;
+  
+  private List<CPeriod> periods;
+  private CPeriodLengths lengths;
+  
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    this.periods = new ArrayList<>(this.periodCount);
+    for (int i = 0; i < this.periodCount; i++) {
+      long start = Inputs.randomTime(random);
+      this.periods.add(new CPeriod(new CDate(start), new CDate(start + random.nextLong(30 * CDate.DAY_IN_MS))));
+    }
+    this.lengths = CPeriodLengths.of(this.periods);
+  }
+  
+  @Benchmark
+  public CPeriodLengths of() {
+    return CPeriodLengths.of(this.periods);
+  }
+  
+  @Benchmark
+  public int[] sortedIndexes() {
+    return this.lengths.sortedIndexes();
+  }
+  
+  @Benchmark
+  public List<CPeriod> sortByComparator() {
+    List<CPeriod> sorted = new ArrayList<>(this.periods);
+    sorted.sort(CPeriod.lengthComparator());
+    return sorted;
+  }
+  
+  @Benchmark
+  public int[] longest() {
+    return this.lengths.longest(10);
+  }
+}
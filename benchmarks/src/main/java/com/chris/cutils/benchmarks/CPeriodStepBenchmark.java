@@ -0,0 +1,79 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDate;
+import com.chris.cutils.CPeriod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stepping through a year-long {@link CPeriod} with its lazy {@link CPeriod#times}, {@link CPeriod#dates} and
+ * {@link CPeriod#split} streams, sequential and parallel, against a loop of {@link CDate} additions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CPeriodStepBenchmark {
+  
+  @Param({"HOURS", "DAYS", "MONTHS"})
+  public ChronoUnit unit;
+  
+  private CPeriod period;
+  
+  @Setup
+  public void setup() {
+    this.period = new CPeriod(new CDate(1, 1, 2024), new CDate(31, 12, 2024));
+  }
+  
+  @Benchmark
+  public long loop() {
+    long sum = 0;
+    CDate end = this.period.getEnd();
+    for (CDate date = this.period.getStart(); date.isLessOrEqual(end); date = step(date)) {
+      sum += date.getTime();
+    }
+    return sum;
+  }
+  
+  private CDate step(CDate date) {
+    return switch (this.unit) {
+      case HOURS -> date.addHour(1);
+      case DAYS -> date.addDay(1);
+      default -> date.addMonth(1);
+    };
+  }
+  
+  @Benchmark
+  public long times() {
+    return this.period.times(1, this.unit).sum();
+  }
+  
+  @Benchmark
+  public long timesParallel() {
+    return this.period.times(1, this.unit).parallel().sum();
+  }
+  
+  @Benchmark
+  public long dates() {
+    return this.period.dates(1, this.unit).mapToLong(CDate::getTime).sum();
+  }
+  
+  @Benchmark
+  public long split() {
+    return this.period.split(1, this.unit).mapToLong(part -> part.getEnd().getTime()).sum();
+  }
+}
@@ -0,0 +1,87 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CString;
+import com.chris.cutils.CTokenGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random strings and the single-pass {@link CString} helpers across string lengths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CStringBenchmark {
+  
+  @Param({"8", "32", "128"})
+  public int length;
+  
+  private final CTokenGenerator insecure = CTokenGenerator.insecure(CTokenGenerator.ALPHANUMERIC, 42);
+  private String text;
+  private String digits;
+  private String blank;
+  private final StringBuilder out = new StringBuilder();
+  
+  @Setup
+  public void setup() {
+    this.text = "hELLO " + CTokenGenerator.insecure(CTokenGenerator.ALPHANUMERIC, 7).next(this.length);
+    this.digits = CTokenGenerator.insecure("0123456789", 7).next(this.length);
+    this.blank = " ".repeat(this.length);
+  }
+  
+  @Benchmark
+  public String randomString() {
+    return CString.randomString(this.length);
+  }
+  
+  @Benchmark
+  public String insecureToken() {
+    return this.insecure.next(this.length);
+  }
+  
+  @Benchmark
+  public String capitalize() {
+    return CString.capitalize(this.text);
+  }
+  
+  @Benchmark
+  public int capitalizeTo() {
+    this.out.setLength(0);
+    CString.capitalizeTo(this.text, this.out);
+    return this.out.length();
+  }
+  
+  @Benchmark
+  public String padLeft() {
+    return CString.padLeft(this.digits, this.length * 2, '0');
+  }
+  
+  @Benchmark
+  public boolean isNumeric() {
+    return CString.isNumeric(this.digits);
+  }
+  
+  @Benchmark
+  public boolean isNullOrBlank() {
+    return CString.isNullOrBlank(this.blank);
+  }
+  
+  @Benchmark
+  public String reverse() {
+    return CString.reverse(this.text);
+  }
+}
@@ -0,0 +1,59 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDate;
+import com.chris.cutils.CTimeBucket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Truncating times to fixed, week and calendar {@link CTimeBucket}s, as {@code long} millis and as {@link CDate}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CTimeBucketBenchmark {
+  
+  @Param({"FIFTEEN_MINUTES", "WEEK", "QUARTER"})
+  public String width;
+  
+  private CTimeBucket bucket;
+  private long time;
+  private CDate date;
+  
+  @Setup
+  public void setup() throws ReflectiveOperationException {
+    this.bucket = (CTimeBucket) CTimeBucket.class.getField(this.width).get(null);
+    this.time = Inputs.randomTime(new SplittableRandom(42));
+    this.date = new CDate(this.time);
+  }
+  
+  @Benchmark
+  public long truncate() {
+    return this.bucket.truncate(this.time);
+  }
+  
+  @Benchmark
+  public long ceil() {
+    return this.bucket.ceil(this.time);
+  }
+  
+  @Benchmark
+  public CDate truncateDate() {
+    return this.bucket.truncate(this.date);
+  }
+}
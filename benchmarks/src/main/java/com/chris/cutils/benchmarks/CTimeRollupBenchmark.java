@@ -0,0 +1,75 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDecimal;
+import com.chris.cutils.CTimeBucket;
+import com.chris.cutils.CTimeRollup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording samples into a minute-bucketed {@link CTimeRollup}: in time order, which hits the cached last bucket,
+ * scattered over a day, and from four threads at once; plus taking a snapshot of a day of buckets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CTimeRollupBenchmark {
+  
+  private static final int SAMPLES = 1024;
+  
+  private final CTimeRollup rollup = new CTimeRollup(CTimeBucket.MINUTE, 2);
+  private final CTimeRollup day = new CTimeRollup(CTimeBucket.MINUTE, 2);
+  private final long[] scattered = new long[SAMPLES];
+  private long time;
+  private CDecimal amount;
+  private int next;
+  
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    this.time = Inputs.randomTime(random);
+    for (int i = 0; i < SAMPLES; i++) {
+      this.scattered[i] = this.time + random.nextLong(86_400_000);
+    }
+    this.amount = Inputs.randomDecimal(random, "small", 2);
+    for (int i = 0; i < 86_400; i++) {
+      this.day.record(this.time + i * 1000L, this.amount);
+    }
+  }
+  
+  @Benchmark
+  public void recordInOrder() {
+    this.rollup.record(this.time, this.amount);
+  }
+  
+  @Benchmark
+  public void recordScattered() {
+    this.rollup.record(this.scattered[this.next++ & (SAMPLES - 1)], this.amount);
+  }
+  
+  @Benchmark
+  @Threads(4)
+  public void recordContended() {
+    this.rollup.record(this.time, this.amount);
+  }
+  
+  @Benchmark
+  public CTimeRollup.Series snapshot() {
+    return this.day.snapshot();
+  }
+}
@@ -0,0 +1,85 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDecimal;
+import com.chris.cutils.CDecimalWindow;
+import com.chris.cutils.CDuration;
+import com.chris.cutils.CDurationWindow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording into and reading five-minute {@link CDecimalWindow} and {@link CDurationWindow} windows of one-second
+ * sub-buckets, with synchronized and single writers. Each record moves the time on by a millisecond, so sub-buckets
+ * keep expiring.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CWindowBenchmark {
+  
+  @Param({"shared", "single"})
+  public String writer;
+  
+  private CDecimalWindow decimals;
+  private CDurationWindow durations;
+  private CDecimal amount;
+  private CDuration latency;
+  private long time;
+  
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    CDuration window = CDuration.ofMinutes(5);
+    CDuration granularity = CDuration.ONE_SECOND;
+    boolean single = this.writer.equals("single");
+    this.decimals = single
+        ? CDecimalWindow.singleWriter(window, granularity, 2)
+        : CDecimalWindow.of(window, granularity, 2);
+    this.durations = single
+        ? CDurationWindow.singleWriter(window, granularity)
+        : CDurationWindow.of(window, granularity);
+    this.amount = Inputs.randomDecimal(random, "small", 2);
+    this.latency = CDuration.ofMillis(random.nextLong(1, 1000));
+    this.time = Inputs.randomTime(random);
+    for (int i = 0; i < 300_000; i++) {
+      this.decimals.record(this.time, this.amount);
+      this.durations.record(this.time, this.latency);
+      this.time++;
+    }
+  }
+  
+  @Benchmark
+  public boolean recordDecimal() {
+    return this.decimals.record(this.time++, this.amount);
+  }
+  
+  @Benchmark
+  public boolean recordDuration() {
+    return this.durations.record(this.time++, this.latency);
+  }
+  
+  @Benchmark
+  public CDecimal sumDecimals() {
+    return this.decimals.sum();
+  }
+  
+  @Benchmark
+  public CDuration averageDurations() {
+    return this.durations.average();
+  }
+}
@@ -0,0 +1,69 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDate;
+import com.chris.cutils.CDateFormatter;
+import com.chris.cutils.CDecimal;
+import com.chris.cutils.CDecimalAdder;
+import com.chris.cutils.CString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared state under concurrent callers: the secure token source, the formatter cache, date parsing and a shared
+ * {@link CDecimalAdder}. Each benchmark runs on four threads; compare with the single-threaded suites to see the cost
+ * of contention.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ContendedBenchmark {
+  
+  private final CDecimalAdder adder = new CDecimalAdder(2);
+  private long time;
+  private String text;
+  private CDecimal amount;
+  
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(42);
+    this.time = Inputs.randomTime(random);
+    this.text = CDateFormatter.format(this.time, CDateFormatter.DATE_TIME_PATTERN);
+    this.amount = Inputs.randomDecimal(random, "small", 2);
+  }
+  
+  @Benchmark
+  public String randomString() {
+    return CString.randomString(16);
+  }
+  
+  @Benchmark
+  public String formatCustomPattern() {
+    return CDateFormatter.format(this.time, "yyyy-MM-dd HH:mm");
+  }
+  
+  @Benchmark
+  public CDate parse() {
+    return CDate.parse(this.text, CDateFormatter.DATE_TIME_PATTERN);
+  }
+  
+  @Benchmark
+  public void adderAdd() {
+    this.adder.add(this.amount);
+  }
+}
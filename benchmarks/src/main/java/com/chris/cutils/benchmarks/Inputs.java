@@ -0,0 +1,39 @@
+package com.chris.cutils.benchmarks;
+
+import com.chris.cutils.CDecimal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.SplittableRandom;
+
+/**
+ * Reproducible benchmark inputs.
+ */
+final class Inputs {
+  
+  // 2000-01-01 to 2040-01-01
+  private static final long MIN_TIME = 946_684_800_000L;
+  private static final long MAX_TIME = 2_208_988_800_000L;
+  
+  private Inputs() {
+  }
+  
+  static long randomTime(SplittableRandom random) {
+    return random.nextLong(MIN_TIME, MAX_TIME);
+  }
+  
+  /**
+   * Returns a decimal of the given scale whose unscaled value has about as many digits as the magnitude asks for:
+   * {@code small} (up to 6), {@code large} (15 to 18) or {@code huge} (30, past the range of a {@code long}).
+   */
+  static CDecimal randomDecimal(SplittableRandom random, String magnitude, int scale) {
+    BigInteger unscaled = switch (magnitude) {
+      case "small" -> BigInteger.valueOf(random.nextLong(1, 1_000_000));
+      case "large" -> BigInteger.valueOf(random.nextLong(100_000_000_000_000L, Long.MAX_VALUE / 10));
+      case "huge" -> BigInteger.TEN.pow(29).add(BigInteger.valueOf(random.nextLong(1, Long.MAX_VALUE)));
+      default -> throw new IllegalArgumentException("Unknown magnitude: " + magnitude);
+    };
+    if (random.nextBoolean()) unscaled = unscaled.negate();
+    return new CDecimal(new BigDecimal(unscaled, scale));
+  }
+}
@@ -0,0 +1,440 @@
+package com.chris.cutils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+import static com.chris.cutils.CDecimalMath.INFLATED;
+
+/**
+ * Compact binary encoding of {@link CDate}, {@link CDecimal}, {@link CDuration} and {@link CPeriod}, and of arrays of
+ * them, to and from {@link ByteBuffer} and {@link DataOutput} / {@link DataInput}.
+ * <p>
+ * Signed numbers are written as zig-zag varints (LEB128, 7 bits per byte), so small magnitudes take few bytes:
+ * <ul>
+ *   <li>a date is its epoch millis (6 bytes for dates of this century);</li>
+ *   <li>a decimal is one byte of scale followed by its unscaled value; a scale outside {@code [-127, 127]} or an
+ *   unscaled value that does not fit in a {@code long} is escaped by the scale byte {@code -128}, followed by the
+ *   scale and the two's-complement bytes of the unscaled value;</li>
+ *   <li>a duration is its seconds followed by its nanosecond adjustment;</li>
+ *   <li>a period is its start followed by its length in millis.</li>
+ * </ul>
+ * Arrays are prefixed by their length. Date and period arrays store each start as the delta from the previous one, so
+ * sorted sequences take one to three bytes per value; a decimal array stores its scale once.
+ * <p>
+ * Buffers are read and written at their position, heap and direct alike, without intermediate copies; writing to a
+ * buffer with too little room throws {@link java.nio.BufferOverflowException}, reading past its limit throws
+ * {@link java.nio.BufferUnderflowException}. The byte order of the buffer does not matter. Values must not be null.
+ */
+public final class CBinaryCodec {
+  
+  private static final int MAX_VARINT_SIZE = 10;
+  private static final int ESCAPE = -128;
+  private static final int CHUNK_SIZE = 4096;
+  
+  private CBinaryCodec() {
+  }
+  
+  public static void writeDate(ByteBuffer out, CDate date) {
+    writeVarLong(out, zigZag(date.getTime()));
+  }
+  
+  public static CDate readDate(ByteBuffer in) {
+    return new CDate(unZigZag(readVarLong(in)));
+  }
+  
+  public static void writeDecimal(ByteBuffer out, CDecimal decimal) {
+    int scale = decimal.scale();
+    if (decimal.isCompact() && scale > ESCAPE && scale <= Byte.MAX_VALUE) {
+      out.put((byte) scale);
+      writeVarLong(out, zigZag(decimal.compactValue()));
+    } else {
+      out.put((byte) ESCAPE);
+      writeVarLong(out, zigZag(scale));
+      writeBigInteger(out, decimal.getValue().unscaledValue());
+    }
+  }
+  
+  public static CDecimal readDecimal(ByteBuffer in) {
+    int scale = in.get();
+    if (scale != ESCAPE) return CDecimal.valueOf(unZigZag(readVarLong(in)), scale);
+    scale = toInt(unZigZag(readVarLong(in)));
+    return new CDecimal(new BigDecimal(readBigInteger(in), scale));
+  }
+  
+  public static void writeDuration(ByteBuffer out, CDuration duration) {
+    if (!duration.isCompact()) {
+      Duration value = duration.getValue();
+      writeVarLong(out, zigZag(value.getSeconds()));
+      writeVarLong(out, value.getNano());
+      return;
+    }
+    long nanos = duration.toNanos();
+    writeVarLong(out, zigZag(Math.floorDiv(nanos, CDuration.NANOS_PER_SECOND)));
+    writeVarLong(out, Math.floorMod(nanos, CDuration.NANOS_PER_SECOND));
+  }
+  
+  public static CDuration readDuration(ByteBuffer in) {
+    long seconds = unZigZag(readVarLong(in));
+    return duration(seconds, readVarLong(in));
+  }
+  
+  public static void writePeriod(ByteBuffer out, CPeriod period) {
+    long start = period.getStart().getTime();
+    writeVarLong(out, zigZag(start));
+    writeVarLong(out, zigZag(period.getEnd().getTime() - start));
+  }
+  
+  public static CPeriod readPeriod(ByteBuffer in) {
+    long start = unZigZag(readVarLong(in));
+    return period(start, unZigZag(readVarLong(in)));
+  }
+  
+  /**
+   * Writes epoch millis as deltas from the previous value; sorted arrays, such as a {@link CDateTimeline}, are the
+   * most compact.
+   */
+  public static void writeDates(ByteBuffer out, long[] times) {
+    writeVarLong(out, times.length);
+    long previous = 0;
+    for (long time : times) {
+      writeVarLong(out, zigZag(time - previous));
+      previous = time;
+    }
+  }
+  
+  public static long[] readDates(ByteBuffer in) {
+    long[] times = new long[readLength(in)];
+    long previous = 0;
+    for (int i = 0; i < times.length; i++) {
+      previous += unZigZag(readVarLong(in));
+      times[i] = previous;
+    }
+    return times;
+  }
+  
+  /**
+   * Writes the scale of the array once, then each unscaled value; rows that do not fit in a {@code long} are
+   * followed by their bytes.
+   */
+  public static void writeDecimals(ByteBuffer out, CDecimalArray decimals) {
+    writeVarLong(out, decimals.length());
+    writeVarLong(out, zigZag(decimals.scale()));
+    for (int i = 0; i < decimals.length(); i++) {
+      long unscaled = decimals.unscaledValue(i);
+      writeVarLong(out, zigZag(unscaled));
+      if (unscaled == INFLATED) writeBigInteger(out, decimals.get(i).getValue().unscaledValue());
+    }
+  }
+  
+  public static CDecimalArray readDecimals(ByteBuffer in) {
+    long[] unscaled = new long[readLength(in)];
+    int scale = toInt(unZigZag(readVarLong(in)));
+    BigDecimal[] overflow = null;
+    for (int i = 0; i < unscaled.length; i++) {
+      long value = unZigZag(readVarLong(in));
+      if (value == INFLATED) {
+        if (overflow == null) overflow = new BigDecimal[unscaled.length];
+        overflow[i] = new BigDecimal(readBigInteger(in), scale);
+      }
+      unscaled[i] = value;
+    }
+    return CDecimalArray.wrap(unscaled, overflow, scale);
+  }
+  
+  public static void writeDurations(ByteBuffer out, CDuration[] durations) {
+    writeVarLong(out, durations.length);
+    for (CDuration duration : durations) {
+      writeDuration(out, duration);
+    }
+  }
+  
+  public static CDuration[] readDurations(ByteBuffer in) {
+    CDuration[] durations = new CDuration[readLength(in)];
+    for (int i = 0; i < durations.length; i++) {
+      durations[i] = readDuration(in);
+    }
+    return durations;
+  }
+  
+  /**
+   * Writes each period as the delta of its start from the previous start, then its length.
+   */
+  public static void writePeriods(ByteBuffer out, CPeriod[] periods) {
+    writeVarLong(out, periods.length);
+    long previous = 0;
+    for (CPeriod period : periods) {
+      long start = period.getStart().getTime();
+      writeVarLong(out, zigZag(start - previous));
+      writeVarLong(out, zigZag(period.getEnd().getTime() - start));
+      previous = start;
+    }
+  }
+  
+  public static CPeriod[] readPeriods(ByteBuffer in) {
+    CPeriod[] periods = new CPeriod[readLength(in)];
+    long previous = 0;
+    for (int i = 0; i < periods.length; i++) {
+      previous += unZigZag(readVarLong(in));
+      periods[i] = period(previous, unZigZag(readVarLong(in)));
+    }
+    return periods;
+  }
+  
+  public static void writeDate(DataOutput out, CDate date) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(MAX_VARINT_SIZE);
+    writeDate(buffer, date);
+    flush(buffer, out);
+  }
+  
+  public static CDate readDate(DataInput in) throws IOException {
+    return new CDate(unZigZag(readVarLong(in)));
+  }
+  
+  public static void writeDecimal(DataOutput out, CDecimal decimal) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(decimalSize(decimal));
+    writeDecimal(buffer, decimal);
+    flush(buffer, out);
+  }
+  
+  public static CDecimal readDecimal(DataInput in) throws IOException {
+    int scale = in.readByte();
+    if (scale != ESCAPE) return CDecimal.valueOf(unZigZag(readVarLong(in)), scale);
+    scale = toInt(unZigZag(readVarLong(in)));
+    return new CDecimal(new BigDecimal(readBigInteger(in), scale));
+  }
+  
+  public static void writeDuration(DataOutput out, CDuration duration) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(2 * MAX_VARINT_SIZE);
+    writeDuration(buffer, duration);
+    flush(buffer, out);
+  }
+  
+  public static CDuration readDuration(DataInput in) throws IOException {
+    long seconds = unZigZag(readVarLong(in));
+    return duration(seconds, readVarLong(in));
+  }
+  
+  public static void writePeriod(DataOutput out, CPeriod period) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(2 * MAX_VARINT_SIZE);
+    writePeriod(buffer, period);
+    flush(buffer, out);
+  }
+  
+  public static CPeriod readPeriod(DataInput in) throws IOException {
+    long start = unZigZag(readVarLong(in));
+    return period(start, unZigZag(readVarLong(in)));
+  }
+  
+  public static void writeDates(DataOutput out, long[] times) throws IOException {
+    ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+    writeVarLong(chunk, times.length);
+    long previous = 0;
+    for (long time : times) {
+      ensure(chunk, out, MAX_VARINT_SIZE);
+      writeVarLong(chunk, zigZag(time - previous));
+      previous = time;
+    }
+    flush(chunk, out);
+  }
+  
+  public static long[] readDates(DataInput in) throws IOException {
+    long[] times = new long[readLength(in)];
+    long previous = 0;
+    for (int i = 0; i < times.length; i++) {
+      previous += unZigZag(readVarLong(in));
+      times[i] = previous;
+    }
+    return times;
+  }
+  
+  public static void writeDecimals(DataOutput out, CDecimalArray decimals) throws IOException {
+    ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+    writeVarLong(chunk, decimals.length());
+    writeVarLong(chunk, zigZag(decimals.scale()));
+    for (int i = 0; i < decimals.length(); i++) {
+      long unscaled = decimals.unscaledValue(i);
+      if (unscaled != INFLATED) {
+        ensure(chunk, out, MAX_VARINT_SIZE);
+        writeVarLong(chunk, zigZag(unscaled));
+      } else {
+        BigInteger value = decimals.get(i).getValue().unscaledValue();
+        chunk = ensure(chunk, out, 2 * MAX_VARINT_SIZE + value.bitLength() / 8 + 1);
+        writeVarLong(chunk, zigZag(unscaled));
+        writeBigInteger(chunk, value);
+      }
+    }
+    flush(chunk, out);
+  }
+  
+  public static CDecimalArray readDecimals(DataInput in) throws IOException {
+    long[] unscaled = new long[readLength(in)];
+    int scale = toInt(unZigZag(readVarLong(in)));
+    BigDecimal[] overflow = null;
+    for (int i = 0; i < unscaled.length; i++) {
+      long value = unZigZag(readVarLong(in));
+      if (value == INFLATED) {
+        if (overflow == null) overflow = new BigDecimal[unscaled.length];
+        overflow[i] = new BigDecimal(readBigInteger(in), scale);
+      }
+      unscaled[i] = value;
+    }
+    return CDecimalArray.wrap(unscaled, overflow, scale);
+  }
+  
+  public static void writeDurations(DataOutput out, CDuration[] durations) throws IOException {
+    ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+    writeVarLong(chunk, durations.length);
+    for (CDuration duration : durations) {
+      ensure(chunk, out, 2 * MAX_VARINT_SIZE);
+      writeDuration(chunk, duration);
+    }
+    flush(chunk, out);
+  }
+  
+  public static CDuration[] readDurations(DataInput in) throws IOException {
+    CDuration[] durations = new CDuration[readLength(in)];
+    for (int i = 0; i < durations.length; i++) {
+      durations[i] = readDuration(in);
+    }
+    return durations;
+  }
+  
+  public static void writePeriods(DataOutput out, CPeriod[] periods) throws IOException {
+    ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+    writeVarLong(chunk, periods.length);
+    long previous = 0;
+    for (CPeriod period : periods) {
+      long start = period.getStart().getTime();
+      ensure(chunk, out, 2 * MAX_VARINT_SIZE);
+      writeVarLong(chunk, zigZag(start - previous));
+      writeVarLong(chunk, zigZag(period.getEnd().getTime() - start));
+      previous = start;
+    }
+    flush(chunk, out);
+  }
+  
+  public static CPeriod[] readPeriods(DataInput in) throws IOException {
+    CPeriod[] periods = new CPeriod[readLength(in)];
+    long previous = 0;
+    for (int i = 0; i < periods.length; i++) {
+      previous += unZigZag(readVarLong(in));
+      periods[i] = period(previous, unZigZag(readVarLong(in)));
+    }
+    return periods;
+  }
+  
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+  
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+  
+  private static void writeVarLong(ByteBuffer out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.put((byte) (value | 0x80));
+      value >>>= 7;
+    }
+    out.put((byte) value);
+  }
+  
+  private static long readVarLong(ByteBuffer in) {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      byte b = in.get();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) return value;
+    }
+    throw new IllegalArgumentException("Malformed varint");
+  }
+  
+  private static long readVarLong(DataInput in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      byte b = in.readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) return value;
+    }
+    throw new IllegalArgumentException("Malformed varint");
+  }
+  
+  private static void writeBigInteger(ByteBuffer out, BigInteger value) {
+    byte[] bytes = value.toByteArray();
+    writeVarLong(out, bytes.length);
+    out.put(bytes);
+  }
+  
+  private static BigInteger readBigInteger(ByteBuffer in) {
+    int length = readLength(in);
+    if (length == 0) throw new IllegalArgumentException("Malformed decimal");
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return new BigInteger(bytes);
+  }
+  
+  private static BigInteger readBigInteger(DataInput in) throws IOException {
+    int length = readLength(in);
+    if (length == 0) throw new IllegalArgumentException("Malformed decimal");
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new BigInteger(bytes);
+  }
+  
+  // every element takes at least one byte, so a length past the remaining bytes is corrupt
+  private static int readLength(ByteBuffer in) {
+    long length = readVarLong(in);
+    if (length < 0 || length > in.remaining()) throw new IllegalArgumentException("Malformed length: " + length);
+    return (int) length;
+  }
+  
+  private static int readLength(DataInput in) throws IOException {
+    long length = readVarLong(in);
+    if (length < 0 || length > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Malformed length: " + length);
+    return (int) length;
+  }
+  
+  private static int toInt(long value) {
+    if (value != (int) value) throw new IllegalArgumentException("Malformed scale: " + value);
+    return (int) value;
+  }
+  
+  private static int decimalSize(CDecimal decimal) {
+    if (decimal.isCompact()) return 2 * MAX_VARINT_SIZE;
+    return 3 * MAX_VARINT_SIZE + decimal.getValue().unscaledValue().bitLength() / 8 + 1;
+  }
+  
+  private static CDuration duration(long seconds, long nanos) {
+    if (nanos < 0 || nanos >= CDuration.NANOS_PER_SECOND) throw new IllegalArgumentException("Malformed duration");
+    if (seconds > Long.MIN_VALUE / CDuration.NANOS_PER_SECOND && seconds < Long.MAX_VALUE / CDuration.NANOS_PER_SECOND) {
+      return CDuration.ofNanos(seconds * CDuration.NANOS_PER_SECOND + nanos);
+    }
+    return new CDuration(Duration.ofSeconds(seconds, nanos));
+  }
+  
+  private static CPeriod period(long start, long length) {
+    return length >= 0
+        ? new CPeriod(new CDate(start), new CDate(start + length))
+        : new CPeriod(new CDate(start), CDuration.ofMillis(length));
+  }
+  
+  /**
+   * Makes room for {@code bytes} in the chunk, flushing it to {@code out} first if needed, and returns the chunk to
+   * keep writing to (a larger one if {@code bytes} exceeds its capacity).
+   */
+  private static ByteBuffer ensure(ByteBuffer chunk, DataOutput out, int bytes) throws IOException {
+    if (chunk.remaining() >= bytes) return chunk;
+    flush(chunk, out);
+    return chunk.capacity() >= bytes ? chunk : ByteBuffer.allocate(bytes);
+  }
+  
+  private static void flush(ByteBuffer buffer, DataOutput out) throws IOException {
+    out.write(buffer.array(), 0, buffer.position());
+    buffer.clear();
+  }
+}
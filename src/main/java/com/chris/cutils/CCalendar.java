@@ -0,0 +1,135 @@
+package com.chris.cutils;
+
+/**
+ * Proleptic Gregorian calendar arithmetic on UTC epoch millis.
+ * <p>
+ * Field extraction uses the civil-from-days algorithm, so none of these methods allocate or touch {@code java.time}.
+ * Calendar dates are returned packed into a single {@code long} (see {@link #civil(long)}).
+ */
+final class CCalendar {
+  
+  static final long DAY_IN_MS = 86400000L;
+  
+  private static final long DAYS_0000_TO_1970 = 719468L;
+  private static final long DAYS_PER_ERA = 146097L;
+  
+  private CCalendar() {
+  }
+  
+  static long epochDay(long time) {
+    return Math.floorDiv(time, DAY_IN_MS);
+  }
+  
+  static int millisOfDay(long time) {
+    return (int) Math.floorMod(time, DAY_IN_MS);
+  }
+  
+  /**
+   * Converts an epoch day to a packed {@code year << 9 | month << 5 | day} value.
+   */
+  static long civil(long epochDay) {
+    long z = epochDay + DAYS_0000_TO_1970;
+    long era = Math.floorDiv(z, DAYS_PER_ERA);
+    long doe = z - era * DAYS_PER_ERA;
+    long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+    long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+    long mp = (5 * doy + 2) / 153;
+    long day = doy - (153 * mp + 2) / 5 + 1;
+    long month = mp < 10 ? mp + 3 : mp - 9;
+    long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+    return year << 9 | month << 5 | day;
+  }
+  
+  static int year(long civil) {
+    return (int) (civil >> 9);
+  }
+  
+  static int month(long civil) {
+    return (int) (civil >> 5) & 15;
+  }
+  
+  static int day(long civil) {
+    return (int) civil & 31;
+  }
+  
+  static long epochDay(long year, int month, int day) {
+    long y = month <= 2 ? year - 1 : year;
+    long era = Math.floorDiv(y, 400);
+    long yoe = y - era * 400;
+    long doy = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+    return era * DAYS_PER_ERA + doe - DAYS_0000_TO_1970;
+  }
+  
+  static boolean isLeapYear(long year) {
+    return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+  }
+  
+  static int lengthOfMonth(long year, int month) {
+    return switch (month) {
+      case 2 -> isLeapYear(year) ? 29 : 28;
+      case 4, 6, 9, 11 -> 30;
+      default -> 31;
+    };
+  }
+  
+  /**
+   * Returns the ISO day-of-week, from 1 (Monday) to 7 (Sunday).
+   */
+  static int dayOfWeek(long epochDay) {
+    return Math.floorMod(epochDay + 3, 7) + 1;
+  }
+  
+  /**
+   * Counts the whole calendar months from one epoch-millis time to another the way {@code LocalDateTime.until} does:
+   * the end date moves one day toward the start if its time of day has not reached the start's, then the month count
+   * is truncated toward zero.
+   */
+  static long monthsBetween(long from, long to) {
+    long fromDay = epochDay(from);
+    long toDay = epochDay(to);
+    int fromTime = millisOfDay(from);
+    int toTime = millisOfDay(to);
+    if (toDay > fromDay && toTime < fromTime) {
+      toDay--;
+    } else if (toDay < fromDay && toTime > fromTime) {
+      toDay++;
+    }
+    return (packedMonthDay(civil(toDay)) - packedMonthDay(civil(fromDay))) / 32;
+  }
+  
+  // proleptic month * 32 + day of month, as LocalDate.monthsUntil compares them
+  private static long packedMonthDay(long civil) {
+    return monthCount(civil) * 32L + day(civil);
+  }
+  
+  /**
+   * Returns the proleptic month of a packed calendar date: {@code year * 12 + month - 1}.
+   */
+  static long monthCount(long civil) {
+    return year(civil) * 12L + month(civil) - 1;
+  }
+  
+  /**
+   * Returns the epoch millis at midnight on the first day of a proleptic month (see {@link #monthCount(long)}).
+   */
+  static long startOfMonth(long monthCount) {
+    long year = Math.floorDiv(monthCount, 12);
+    int month = Math.floorMod(monthCount, 12) + 1;
+    return Math.multiplyExact(epochDay(year, month, 1), DAY_IN_MS);
+  }
+  
+  /**
+   * Adds calendar months the way {@code LocalDateTime.plusMonths} does, clamping the day to the end of the month.
+   */
+  static long plusMonths(long time, long months) {
+    if (months == 0) return time;
+    long epochDay = epochDay(time);
+    long civil = civil(epochDay);
+    long monthCount = Math.addExact(monthCount(civil), months);
+    long year = Math.floorDiv(monthCount, 12);
+    int month = Math.floorMod(monthCount, 12) + 1;
+    int day = Math.min(day(civil), lengthOfMonth(year, month));
+    return Math.addExact(Math.multiplyExact(epochDay(year, month, day), DAY_IN_MS), millisOfDay(time));
+  }
+}
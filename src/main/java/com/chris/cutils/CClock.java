@@ -0,0 +1,112 @@
+package com.chris.cutils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A source of the current time in epoch millis, read by {@link CDate#currentServerDate()} and
+ * {@link CDate#currentDate(java.time.ZoneId)} through {@link CDate#setClock(CClock)}.
+ * <ul>
+ *   <li>{@link #SYSTEM} reads {@link System#currentTimeMillis()}.</li>
+ *   <li>{@link #coarse(long)} returns a {@link Coarse} clock: a daemon thread refreshes a volatile field every
+ *   resolution, so reads cost one volatile load and lag the system clock by up to the resolution. Meant for
+ *   timestamping logs and audit records at high rates.</li>
+ *   <li>{@link #manual(long)} returns a {@link Manual} clock that only moves when told to, for tests.</li>
+ * </ul>
+ */
+@FunctionalInterface
+public interface CClock {
+  
+  CClock SYSTEM = System::currentTimeMillis;
+  
+  long currentTimeMillis();
+  
+  /**
+   * Starts a coarse clock ticking every {@code resolutionMillis}; {@link Coarse#close() close} it to stop its thread.
+   */
+  static Coarse coarse(long resolutionMillis) {
+    return new Coarse(resolutionMillis);
+  }
+  
+  static Manual manual(long startMillis) {
+    return new Manual(startMillis);
+  }
+  
+  /**
+   * A clock cached by a single daemon ticker thread. Once closed, it reads the system clock directly, so it stays
+   * correct if a stale reference is still in use.
+   */
+  final class Coarse implements CClock, AutoCloseable {
+    
+    private final long resolutionMillis;
+    private final Thread ticker;
+    private volatile long now;
+    private volatile boolean closed;
+    
+    private Coarse(long resolutionMillis) {
+      if (resolutionMillis <= 0) throw new IllegalArgumentException("Invalid resolution: " + resolutionMillis);
+      this.resolutionMillis = resolutionMillis;
+      this.now = System.currentTimeMillis();
+      this.ticker = new Thread(this::tick, "cutils-coarse-clock");
+      this.ticker.setDaemon(true);
+      this.ticker.start();
+    }
+    
+    private void tick() {
+      long resolutionNanos = TimeUnit.MILLISECONDS.toNanos(this.resolutionMillis);
+      while (!this.closed) {
+        LockSupport.parkNanos(this, resolutionNanos);
+        this.now = System.currentTimeMillis();
+      }
+    }
+    
+    @Override
+    public long currentTimeMillis() {
+      return this.closed ? System.currentTimeMillis() : this.now;
+    }
+    
+    public long getResolutionMillis() {
+      return resolutionMillis;
+    }
+    
+    @Override
+    public void close() {
+      this.closed = true;
+      LockSupport.unpark(this.ticker);
+    }
+  }
+  
+  /**
+   * A clock that is set and advanced by hand. Thread-safe.
+   */
+  final class Manual implements CClock {
+    
+    private final AtomicLong now;
+    
+    private Manual(long startMillis) {
+      this.now = new AtomicLong(startMillis);
+    }
+    
+    @Override
+    public long currentTimeMillis() {
+      return this.now.get();
+    }
+    
+    public void set(long millis) {
+      this.now.set(millis);
+    }
+    
+    public void set(CDate date) {
+      set(date.getTime());
+    }
+    
+    public long advance(long millis) {
+      return this.now.addAndGet(millis);
+    }
+    
+    public long advance(CDuration duration) {
+      return advance(duration.toMillis());
+    }
+  }
+}
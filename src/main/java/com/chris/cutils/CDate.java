@@ -2,8 +2,7 @@ package com.chris.cutils;
 
 
 import java.time.*;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
+import java.util.Objects;
 import java.util.TimeZone;
 
 public class CDate implements Comparable<CDate> {
@@ -23,20 +22,20 @@ public class CDate implements Comparable<CDate> {
     TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
   }
   
-  private LocalDateTime dateTime;
+  private static volatile CClock clock = CClock.SYSTEM;
+  
   private long time;
   
   public CDate(long time) {
-    this.setTime(time);
+    this.time = time;
   }
   
   public CDate(LocalDateTime dateTime) {
-    this.dateTime = dateTime;
-    this.time = this.toInstantMilli();
+    this.time = toEpochMilli(dateTime.toEpochSecond(UTC), dateTime.getNano());
   }
   
   public CDate(CDate date) {
-    this.setTime(date.getTime());
+    this.time = date.getTime();
   }
   
   public CDate(int day, int month, int year) {
@@ -52,28 +51,59 @@ public class CDate implements Comparable<CDate> {
   }
   
   public CDate(LocalDate date, LocalTime time) {
-    this.dateTime = LocalDateTime.of(date, time);
-    this.time = this.toInstantMilli();
+    this.time = toEpochMilli(date.toEpochDay() * 86400L + time.toSecondOfDay(), time.getNano());
+  }
+  
+  private static long toEpochMilli(long epochSecond, int nano) {
+    return Math.addExact(Math.multiplyExact(epochSecond, SECOND), nano / 1_000_000);
+  }
+  
+  static LocalDateTime toLocalDateTime(long time) {
+    return LocalDateTime.ofEpochSecond(Math.floorDiv(time, SECOND), Math.floorMod(time, SECOND) * 1_000_000, UTC);
   }
   
   private static long truncate(long time) {
     return time - time % DAY_IN_MS;
   }
   
+  /**
+   * Sets the clock {@link #currentServerDate()} and {@link #currentDate(ZoneId)} read, for every caller; for example
+   * a {@link CClock#coarse(long) coarse clock} at startup, or a {@link CClock#manual(long) manual clock} in tests.
+   */
+  public static void setClock(CClock clock) {
+    CDate.clock = Objects.requireNonNull(clock);
+  }
+  
+  public static CClock getClock() {
+    return clock;
+  }
+  
   public static CDate currentServerDate() {
-    return currentDate(UTC);
+    return new CDate(clock.currentTimeMillis());
   }
   
+  /**
+   * Returns the current local date-time of the zone, read as UTC like every {@code CDate}.
+   */
   public static CDate currentDate(ZoneId zoneId)  {
-    return new CDate(LocalDateTime.now(zoneId));
+    long now = clock.currentTimeMillis();
+    ZoneOffset offset = zoneId instanceof ZoneOffset fixed
+        ? fixed
+        : zoneId.getRules().getOffset(Instant.ofEpochMilli(now));
+    return new CDate(offset == UTC ? now : now + offset.getTotalSeconds() * (long) SECOND);
   }
   
   public static String format(CDate date, String format) {
-    return date.toLocalDateTime().format(DateTimeFormatter.ofPattern(format));
+    return CDateFormatter.format(date.getTime(), format);
   }
   
   public static CDate parse(String date, String pattern) {
-    return new CDate(LocalDateTime.parse(date, DateTimeFormatter.ofPattern(pattern)));
+    if (pattern == CDateFormatter.DATE_TIME_PATTERN || CDateFormatter.DATE_TIME_PATTERN.equals(pattern)) {
+      long time = CDateParser.parse(CDateParser.Layout.DATE_TIME, date);
+      if (time != CDateParser.INVALID) return new CDate(time);
+    }
+    // anything the fast path rejects still goes through the formatter, for its resolving rules and exceptions
+    return new CDate(LocalDateTime.parse(date, CDateFormatter.ofPattern(pattern)));
   }
   
   public String format(String pattern) {
@@ -86,33 +116,26 @@ public class CDate implements Comparable<CDate> {
   
   public void setTime(long time) {
     this.time = time;
-    this.dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), UTC);
-    checkTime();
-  }
-  
-  private void checkTime() {
-    if (this.time != toInstantMilli())
-      throw new IllegalArgumentException();
   }
   
   public long toInstantMilli() {
-    return this.toInstant().toEpochMilli();
+    return this.time;
   }
   
   public Instant toInstant() {
-    return this.dateTime.atZone(UTC).toInstant();
+    return Instant.ofEpochMilli(this.time);
   }
   
   public LocalDateTime toLocalDateTime() {
-    return this.dateTime;
+    return toLocalDateTime(this.time);
   }
   
   public LocalDate toLocalDate() {
-    return this.dateTime.toLocalDate();
+    return LocalDate.ofEpochDay(CCalendar.epochDay(this.time));
   }
   
   public LocalTime toLocalTime() {
-    return this.dateTime.toLocalTime();
+    return LocalTime.ofNanoOfDay(CCalendar.millisOfDay(this.time) * 1_000_000L);
   }
   
   @Override
@@ -121,77 +144,89 @@ public class CDate implements Comparable<CDate> {
   }
   
   public String toDateString() {
-    return format(this, "dd/MM/yyyy");
+    return format(this, CDateFormatter.DATE_PATTERN);
   }
   
   public String toTimeString() {
-    return format(this, "HH:mm:ss");
+    return format(this, CDateFormatter.TIME_PATTERN);
   }
   
   public String toDateTimeString() {
-    return format(this, "dd/MM/yyyy HH:mm:ss");
+    return format(this, CDateFormatter.DATE_TIME_PATTERN);
   }
   
   public CDate addMillis(long millis) {
-    return new CDate(this.dateTime.plus(millis, ChronoUnit.MILLIS));
+    return new CDate(Math.addExact(this.time, millis));
   }
   
   public CDate addSecond(long seconds) {
-    return new CDate(this.dateTime.plusSeconds(seconds));
+    return addMillis(Math.multiplyExact(seconds, SECOND));
   }
   
   public CDate addMinute(long minutes) {
-    return new CDate(this.dateTime.plusMinutes(minutes));
+    return addMillis(Math.multiplyExact(minutes, MINUTE));
   }
   
   public CDate addHour(long hours) {
-    return new CDate(this.dateTime.plusHours(hours));
+    return addMillis(Math.multiplyExact(hours, HOUR));
   }
   
   public CDate addDay(long days) {
-    return new CDate(this.dateTime.plusDays(days));
+    return addMillis(Math.multiplyExact(days, DAY_IN_MS));
   }
   
   public CDate addWeek(long weeks) {
-    return new CDate(this.dateTime.plusWeeks(weeks));
+    return addMillis(Math.multiplyExact(weeks, 7 * DAY_IN_MS));
   }
   
   public CDate addMonth(long months) {
-    return new CDate(this.dateTime.plusMonths(months));
+    return new CDate(CCalendar.plusMonths(this.time, months));
+  }
+  
+  public CDate add(CDateOffset offset) {
+    return offset.applyTo(this);
   }
   
   public CDate addYear(long years) {
-    return new CDate(this.dateTime.plusYears(years));
+    return new CDate(CCalendar.plusMonths(this.time, Math.multiplyExact(years, 12)));
   }
   
   public int getYear() {
-    return this.dateTime.getYear();
+    return CCalendar.year(CCalendar.civil(CCalendar.epochDay(this.time)));
   }
   
   public int getMonth() {
-    return this.dateTime.getMonthValue();
+    return CCalendar.month(CCalendar.civil(CCalendar.epochDay(this.time)));
   }
   
   public int getDay() {
-    return this.dateTime.getDayOfMonth();
+    return CCalendar.day(CCalendar.civil(CCalendar.epochDay(this.time)));
   }
   
   public int getHour() {
-    return this.dateTime.getHour();
+    return CCalendar.millisOfDay(this.time) / HOUR;
   }
   
   public int getMinute() {
-    return this.dateTime.getMinute();
+    return CCalendar.millisOfDay(this.time) / MINUTE % 60;
   }
   
   public int getSecond() {
-    return this.dateTime.getSecond();
+    return CCalendar.millisOfDay(this.time) / SECOND % 60;
   }
   
   public CDate zeroTime() {
     return new CDate(truncate(this.getTime()));
   }
   
+  public CDate truncateTo(CTimeBucket bucket) {
+    return bucket.truncate(this);
+  }
+  
+  public CDate ceilTo(CTimeBucket bucket) {
+    return bucket.ceil(this);
+  }
+  
   public boolean isGreater(CDate dd) {
     return this.compareTo(dd) > 0;
   }
@@ -209,7 +244,7 @@ public class CDate implements Comparable<CDate> {
   }
   
   public DayOfWeek getDayOfWeek() {
-    return this.dateTime.getDayOfWeek();
+    return DayOfWeek.of(CCalendar.dayOfWeek(CCalendar.epochDay(this.time)));
   }
   
   public CPeriod toPeriod(CDate other) {
@@ -0,0 +1,257 @@
+package com.chris.cutils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Formatting engine behind {@link CDate#format(String)} and {@link CDate#parse(String, String)}.
+ * <p>
+ * Compiled {@link DateTimeFormatter}s are kept in a bounded, thread-safe cache keyed by pattern. The built-in
+ * {@link #DATE_PATTERN}, {@link #TIME_PATTERN} and {@link #DATE_TIME_PATTERN} layouts are written by hand straight
+ * from the epoch millis, without going through {@code java.time} at all.
+ */
+public final class CDateFormatter {
+  
+  public static final String DATE_PATTERN = "dd/MM/yyyy";
+  public static final String TIME_PATTERN = "HH:mm:ss";
+  public static final String DATE_TIME_PATTERN = "dd/MM/yyyy HH:mm:ss";
+  
+  public static final int DATE_LENGTH = 10;
+  public static final int TIME_LENGTH = 8;
+  public static final int DATE_TIME_LENGTH = 19;
+  
+  public static final int MAX_CACHED_PATTERNS = 128;
+  
+  private static final int CUSTOM = 0;
+  private static final int DATE = 1;
+  private static final int TIME = 2;
+  private static final int DATE_TIME = 3;
+  
+  private static final ConcurrentHashMap<String, DateTimeFormatter> CACHE = new ConcurrentHashMap<>();
+  private static final LongAdder HITS = new LongAdder();
+  private static final LongAdder MISSES = new LongAdder();
+  
+  private CDateFormatter() {
+  }
+  
+  /**
+   * Returns the compiled formatter for the given pattern, compiling and caching it on first use.
+   * Once {@link #MAX_CACHED_PATTERNS} patterns are cached, new patterns are compiled without being cached.
+   *
+   * @param pattern the {@link DateTimeFormatter} pattern.
+   * @return the compiled formatter.
+   * @throws IllegalArgumentException if the pattern is invalid.
+   */
+  public static DateTimeFormatter ofPattern(String pattern) {
+    DateTimeFormatter formatter = CACHE.get(pattern);
+    if (formatter != null) {
+      HITS.increment();
+      return formatter;
+    }
+    MISSES.increment();
+    formatter = DateTimeFormatter.ofPattern(pattern);
+    if (CACHE.size() < MAX_CACHED_PATTERNS) {
+      DateTimeFormatter existing = CACHE.putIfAbsent(pattern, formatter);
+      if (existing != null) return existing;
+    }
+    return formatter;
+  }
+  
+  public static long cacheHits() {
+    return HITS.sum();
+  }
+  
+  public static long cacheMisses() {
+    return MISSES.sum();
+  }
+  
+  public static int cacheSize() {
+    return CACHE.size();
+  }
+  
+  public static void clearCache() {
+    CACHE.clear();
+    HITS.reset();
+    MISSES.reset();
+  }
+  
+  public static String format(long time, String pattern) {
+    int layout = layoutOf(pattern);
+    if (layout == CUSTOM || !isFastYear(time)) {
+      return CDate.toLocalDateTime(time).format(ofPattern(pattern));
+    }
+    char[] buffer = new char[DATE_TIME_LENGTH];
+    int length = write(layout, time, buffer, 0);
+    return new String(buffer, 0, length);
+  }
+  
+  public static void formatTo(long time, String pattern, StringBuilder out) {
+    int layout = layoutOf(pattern);
+    if (layout == CUSTOM || !isFastYear(time)) {
+      ofPattern(pattern).formatTo(CDate.toLocalDateTime(time), out);
+      return;
+    }
+    write(layout, time, out);
+  }
+  
+  public static void formatTo(long time, String pattern, Appendable out) {
+    if (out instanceof StringBuilder sb) {
+      formatTo(time, pattern, sb);
+      return;
+    }
+    try {
+      int layout = layoutOf(pattern);
+      if (layout == CUSTOM || !isFastYear(time)) {
+        ofPattern(pattern).formatTo(CDate.toLocalDateTime(time), out);
+        return;
+      }
+      write(layout, time, out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+  
+  /**
+   * Writes {@code time} as {@code dd/MM/yyyy} into {@code dst} starting at {@code offset}.
+   *
+   * @return the offset just past the last written character.
+   * @throws DateTimeException if the year is outside {@code 1..9999}.
+   */
+  public static int formatDate(long time, char[] dst, int offset) {
+    checkFastYear(time);
+    return write(DATE, time, dst, offset);
+  }
+  
+  /**
+   * Writes {@code time} as {@code HH:mm:ss} into {@code dst} starting at {@code offset}.
+   *
+   * @return the offset just past the last written character.
+   */
+  public static int formatTime(long time, char[] dst, int offset) {
+    return write(TIME, time, dst, offset);
+  }
+  
+  /**
+   * Writes {@code time} as {@code dd/MM/yyyy HH:mm:ss} into {@code dst} starting at {@code offset}.
+   *
+   * @return the offset just past the last written character.
+   * @throws DateTimeException if the year is outside {@code 1..9999}.
+   */
+  public static int formatDateTime(long time, char[] dst, int offset) {
+    checkFastYear(time);
+    return write(DATE_TIME, time, dst, offset);
+  }
+  
+  private static int layoutOf(String pattern) {
+    if (pattern == DATE_TIME_PATTERN) return DATE_TIME;
+    if (pattern == DATE_PATTERN) return DATE;
+    if (pattern == TIME_PATTERN) return TIME;
+    if (DATE_TIME_PATTERN.equals(pattern)) return DATE_TIME;
+    if (DATE_PATTERN.equals(pattern)) return DATE;
+    if (TIME_PATTERN.equals(pattern)) return TIME;
+    return CUSTOM;
+  }
+  
+  // 'yyyy' prints the year-of-era with a sign above 9999, so only 1..9999 is written by hand
+  private static boolean isFastYear(long time) {
+    int year = CCalendar.year(CCalendar.civil(CCalendar.epochDay(time)));
+    return year >= 1 && year <= 9999;
+  }
+  
+  private static void checkFastYear(long time) {
+    if (!isFastYear(time)) {
+      throw new DateTimeException("Year out of range for fixed-width formatting: " + time);
+    }
+  }
+  
+  private static int write(int layout, long time, char[] dst, int pos) {
+    if (layout != TIME) {
+      long civil = CCalendar.civil(CCalendar.epochDay(time));
+      pos = put2(dst, pos, CCalendar.day(civil));
+      dst[pos++] = '/';
+      pos = put2(dst, pos, CCalendar.month(civil));
+      dst[pos++] = '/';
+      int year = CCalendar.year(civil);
+      pos = put2(dst, pos, year / 100);
+      pos = put2(dst, pos, year % 100);
+      if (layout == DATE_TIME) dst[pos++] = ' ';
+    }
+    if (layout != DATE) {
+      int millisOfDay = CCalendar.millisOfDay(time);
+      pos = put2(dst, pos, millisOfDay / CDate.HOUR);
+      dst[pos++] = ':';
+      pos = put2(dst, pos, millisOfDay / CDate.MINUTE % 60);
+      dst[pos++] = ':';
+      pos = put2(dst, pos, millisOfDay / CDate.SECOND % 60);
+    }
+    return pos;
+  }
+  
+  // grows the builder once and writes in place, like write(int, long, char[], int)
+  private static void write(int layout, long time, StringBuilder out) {
+    int pos = out.length();
+    out.setLength(pos + (layout == DATE_TIME ? DATE_TIME_LENGTH : layout == DATE ? DATE_LENGTH : TIME_LENGTH));
+    if (layout != TIME) {
+      long civil = CCalendar.civil(CCalendar.epochDay(time));
+      pos = put2(out, pos, CCalendar.day(civil));
+      out.setCharAt(pos++, '/');
+      pos = put2(out, pos, CCalendar.month(civil));
+      out.setCharAt(pos++, '/');
+      int year = CCalendar.year(civil);
+      pos = put2(out, pos, year / 100);
+      pos = put2(out, pos, year % 100);
+      if (layout == DATE_TIME) out.setCharAt(pos++, ' ');
+    }
+    if (layout != DATE) {
+      int millisOfDay = CCalendar.millisOfDay(time);
+      pos = put2(out, pos, millisOfDay / CDate.HOUR);
+      out.setCharAt(pos++, ':');
+      pos = put2(out, pos, millisOfDay / CDate.MINUTE % 60);
+      out.setCharAt(pos++, ':');
+      put2(out, pos, millisOfDay / CDate.SECOND % 60);
+    }
+  }
+  
+  private static void write(int layout, long time, Appendable out) throws IOException {
+    if (layout != TIME) {
+      long civil = CCalendar.civil(CCalendar.epochDay(time));
+      put2(out, CCalendar.day(civil));
+      out.append('/');
+      put2(out, CCalendar.month(civil));
+      out.append('/');
+      int year = CCalendar.year(civil);
+      put2(out, year / 100);
+      put2(out, year % 100);
+      if (layout == DATE_TIME) out.append(' ');
+    }
+    if (layout != DATE) {
+      int millisOfDay = CCalendar.millisOfDay(time);
+      put2(out, millisOfDay / CDate.HOUR);
+      out.append(':');
+      put2(out, millisOfDay / CDate.MINUTE % 60);
+      out.append(':');
+      put2(out, millisOfDay / CDate.SECOND % 60);
+    }
+  }
+  
+  private static int put2(char[] dst, int pos, int value) {
+    dst[pos] = (char) ('0' + value / 10);
+    dst[pos + 1] = (char) ('0' + value % 10);
+    return pos + 2;
+  }
+  
+  private static int put2(StringBuilder out, int pos, int value) {
+    out.setCharAt(pos, (char) ('0' + value / 10));
+    out.setCharAt(pos + 1, (char) ('0' + value % 10));
+    return pos + 2;
+  }
+  
+  private static void put2(Appendable out, int value) throws IOException {
+    out.append((char) ('0' + value / 10));
+    out.append((char) ('0' + value % 10));
+  }
+}
@@ -0,0 +1,155 @@
+package com.chris.cutils;
+
+import java.time.Duration;
+import java.time.Period;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An immutable calendar offset: years, months and days, plus an exact time part in millis, applied to a date in a
+ * single computation instead of one intermediate {@link CDate} per field.
+ * <p>
+ * Applying it gives the same result as chaining {@code addYear(years).addMonth(months).addDay(days).addMillis(millis)}:
+ * years are added first and months second, each clamping the day to the end of the month (Feb 29 plus one year and
+ * one month is Mar 28), then days and millis are added exactly. Arithmetic overflow throws
+ * {@link ArithmeticException}.
+ */
+public final class CDateOffset {
+  
+  public static final CDateOffset ZERO = new CDateOffset(0, 0, 0, 0);
+  
+  private final int years;
+  private final int months;
+  private final int days;
+  private final long millis;
+  // days and millis together, added after the calendar fields
+  private final long exactMillis;
+  
+  public CDateOffset(int years, int months, int days, long millis) {
+    this.years = years;
+    this.months = months;
+    this.days = days;
+    this.millis = millis;
+    this.exactMillis = Math.addExact(days * CDate.DAY_IN_MS, millis);
+  }
+  
+  public static CDateOffset of(int years, int months, int days) {
+    return new CDateOffset(years, months, days, 0);
+  }
+  
+  public static CDateOffset ofMillis(long millis) {
+    return new CDateOffset(0, 0, 0, millis);
+  }
+  
+  public static CDateOffset of(int years, int months, int days, int hours, int minutes, int seconds, int millis) {
+    return new CDateOffset(years, months, days,
+        (long) hours * CDate.HOUR + (long) minutes * CDate.MINUTE + (long) seconds * CDate.SECOND + millis);
+  }
+  
+  public int getYears() {
+    return years;
+  }
+  
+  public int getMonths() {
+    return months;
+  }
+  
+  public int getDays() {
+    return days;
+  }
+  
+  public long getMillis() {
+    return millis;
+  }
+  
+  public boolean isZero() {
+    return this.years == 0 && this.months == 0 && this.exactMillis == 0;
+  }
+  
+  public long applyTo(long time) {
+    if (this.years != 0 || this.months != 0) time = addMonths(time);
+    return this.exactMillis == 0 ? time : Math.addExact(time, this.exactMillis);
+  }
+  
+  public CDate applyTo(CDate date) {
+    return new CDate(applyTo(date.getTime()));
+  }
+  
+  public CPeriod applyTo(CPeriod period) {
+    return new CPeriod(applyTo(period.getStart()), applyTo(period.getEnd()));
+  }
+  
+  /**
+   * Shifts every epoch millis of the array in place.
+   */
+  public void applyTo(long[] times) {
+    applyTo(times, 0, times.length);
+  }
+  
+  public void applyTo(long[] times, int fromIndex, int toIndex) {
+    Objects.checkFromToIndex(fromIndex, toIndex, times.length);
+    if (this.years != 0 || this.months != 0) {
+      for (int i = fromIndex; i < toIndex; i++) {
+        times[i] = applyTo(times[i]);
+      }
+    } else if (this.exactMillis != 0) {
+      long delta = this.exactMillis;
+      for (int i = fromIndex; i < toIndex; i++) {
+        times[i] = Math.addExact(times[i], delta);
+      }
+    }
+  }
+  
+  /**
+   * Replaces every period of the list with the shifted period.
+   */
+  public void applyTo(List<CPeriod> periods) {
+    if (isZero()) return;
+    periods.replaceAll(this::applyTo);
+  }
+  
+  // years then months, each clamping the day of month, as CDate.addYear(years).addMonth(months) does
+  private long addMonths(long time) {
+    long epochDay = CCalendar.epochDay(time);
+    long civil = CCalendar.civil(epochDay);
+    long year = CCalendar.year(civil) + (long) this.years;
+    int month = CCalendar.month(civil);
+    int day = CCalendar.day(civil);
+    if (this.years != 0) day = Math.min(day, CCalendar.lengthOfMonth(year, month));
+    if (this.months != 0) {
+      long monthCount = Math.addExact(Math.multiplyExact(year, 12) + month - 1, this.months);
+      year = Math.floorDiv(monthCount, 12);
+      month = Math.floorMod(monthCount, 12) + 1;
+      day = Math.min(day, CCalendar.lengthOfMonth(year, month));
+    }
+    return Math.addExact(Math.multiplyExact(CCalendar.epochDay(year, month, day), CDate.DAY_IN_MS),
+        CCalendar.millisOfDay(time));
+  }
+  
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof CDateOffset that)) return false;
+    
+    return years == that.years && months == that.months && days == that.days && millis == that.millis;
+  }
+  
+  @Override
+  public int hashCode() {
+    int result = years;
+    result = 31 * result + months;
+    result = 31 * result + days;
+    result = 31 * result + Long.hashCode(millis);
+    return result;
+  }
+  
+  /**
+   * Returns an ISO-8601 like form such as {@code P1Y2M3DT4H}.
+   */
+  @Override
+  public String toString() {
+    String period = Period.of(years, months, days).toString();
+    if (millis == 0) return period;
+    String time = Duration.ofMillis(millis).toString();
+    return years == 0 && months == 0 && days == 0 ? time : period + time.substring(1);
+  }
+}
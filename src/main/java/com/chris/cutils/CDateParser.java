@@ -0,0 +1,203 @@
+package com.chris.cutils;
+
+/**
+ * Exception-free parsers for fixed date layouts, computing epoch millis arithmetically.
+ * <p>
+ * Text is read straight from a {@link CharSequence} or from an ASCII / ISO-8859-1 / UTF-8 {@code byte[]} slice, without
+ * creating a {@code String} or any {@code java.time} object. Every field must have exactly the digits of its layout
+ * and a valid value (no {@code 31/02} and no hour {@code 24}); anything else returns {@link #INVALID} instead of
+ * throwing.
+ * <p>
+ * As everywhere in {@link CDate}, local date-times are read as UTC; an ISO-8601 offset, if present, is applied.
+ */
+public final class CDateParser {
+  
+  /**
+   * Returned for input that does not match the layout. {@code Long.MIN_VALUE} is never a parsed result, since every
+   * layout has a four-digit year.
+   */
+  public static final long INVALID = Long.MIN_VALUE;
+  
+  public enum Layout {
+    /**
+     * {@link CDateFormatter#DATE_PATTERN dd/MM/yyyy}, at midnight.
+     */
+    DATE,
+    /**
+     * {@link CDateFormatter#DATE_TIME_PATTERN dd/MM/yyyy HH:mm:ss}.
+     */
+    DATE_TIME,
+    /**
+     * ISO-8601 {@code yyyy-MM-dd}, optionally followed by {@code THH:mm}, {@code :ss}, a fraction of up to 9 digits
+     * (truncated to millis) and an offset {@code Z}, {@code ±HH} or {@code ±HH:mm}.
+     */
+    ISO
+  }
+  
+  private CDateParser() {
+  }
+  
+  public static long parse(Layout layout, CharSequence text) {
+    return text == null ? INVALID : parse(layout, text, 0, text.length());
+  }
+  
+  public static long parse(Layout layout, CharSequence text, int offset, int length) {
+    return text == null ? INVALID : parse(layout, text, false, offset, length);
+  }
+  
+  public static long parse(Layout layout, byte[] bytes, int offset, int length) {
+    return bytes == null ? INVALID : parse(layout, bytes, true, offset, length);
+  }
+  
+  /**
+   * Parses a whole column into {@code out}, writing {@link #INVALID} for malformed values.
+   *
+   * @return the number of values that failed to parse.
+   */
+  public static int parseColumn(Layout layout, CharSequence[] values, long[] out) {
+    if (out.length < values.length) throw new IllegalArgumentException("Output array is too short");
+    int invalid = 0;
+    for (int i = 0; i < values.length; i++) {
+      long time = parse(layout, values[i]);
+      out[i] = time;
+      if (time == INVALID) invalid++;
+    }
+    return invalid;
+  }
+  
+  /**
+   * Parses the fields {@code bytes[offsets[i], offsets[i] + lengths[i])} of a column into {@code out}, writing
+   * {@link #INVALID} for malformed values.
+   *
+   * @return the number of values that failed to parse.
+   */
+  public static int parseColumn(Layout layout, byte[] bytes, int[] offsets, int[] lengths, long[] out) {
+    int n = offsets.length;
+    if (lengths.length != n) throw new IllegalArgumentException("Length mismatch");
+    if (out.length < n) throw new IllegalArgumentException("Output array is too short");
+    int invalid = 0;
+    for (int i = 0; i < n; i++) {
+      long time = parse(layout, bytes, true, offsets[i], lengths[i]);
+      out[i] = time;
+      if (time == INVALID) invalid++;
+    }
+    return invalid;
+  }
+  
+  private static long parse(Layout layout, Object source, boolean bytes, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > length(source, bytes) - length) return INVALID;
+    return switch (layout) {
+      case DATE -> length == CDateFormatter.DATE_LENGTH ? parseDate(source, bytes, offset, 0) : INVALID;
+      case DATE_TIME -> length == CDateFormatter.DATE_TIME_LENGTH
+          && charAt(source, bytes, offset + 10) == ' '
+          ? parseDate(source, bytes, offset, parseTime(source, bytes, offset + 11)) : INVALID;
+      case ISO -> parseIso(source, bytes, offset, offset + length);
+    };
+  }
+  
+  // dd/MM/yyyy, plus the millis of day already parsed (or INVALID)
+  private static long parseDate(Object source, boolean bytes, int i, long millisOfDay) {
+    if (millisOfDay == INVALID) return INVALID;
+    if (charAt(source, bytes, i + 2) != '/' || charAt(source, bytes, i + 5) != '/') return INVALID;
+    int year = digits(source, bytes, i + 6, 4);
+    // yyyy is a year-of-era, which starts at 1
+    if (year == 0) return INVALID;
+    return toMillis(year, digits(source, bytes, i + 3, 2), digits(source, bytes, i, 2), millisOfDay);
+  }
+  
+  // HH:mm:ss
+  private static long parseTime(Object source, boolean bytes, int i) {
+    if (charAt(source, bytes, i + 2) != ':' || charAt(source, bytes, i + 5) != ':') return INVALID;
+    return toMillisOfDay(digits(source, bytes, i, 2), digits(source, bytes, i + 3, 2), digits(source, bytes, i + 6, 2));
+  }
+  
+  private static long parseIso(Object source, boolean bytes, int i, int end) {
+    if (end - i < 10 || charAt(source, bytes, i + 4) != '-' || charAt(source, bytes, i + 7) != '-') return INVALID;
+    int year = digits(source, bytes, i, 4);
+    int month = digits(source, bytes, i + 5, 2);
+    int day = digits(source, bytes, i + 8, 2);
+    i += 10;
+    if (i == end) return toMillis(year, month, day, 0);
+    
+    int t = charAt(source, bytes, i);
+    if ((t != 'T' && t != 't') || end - i < 6 || charAt(source, bytes, i + 3) != ':') return INVALID;
+    int hour = digits(source, bytes, i + 1, 2);
+    int minute = digits(source, bytes, i + 4, 2);
+    int second = 0;
+    int millis = 0;
+    i += 6;
+    if (i < end && charAt(source, bytes, i) == ':') {
+      if (end - i < 3) return INVALID;
+      second = digits(source, bytes, i + 1, 2);
+      i += 3;
+      if (i < end && charAt(source, bytes, i) == '.') {
+        int fractionDigits = 0;
+        for (i++; i < end && fractionDigits < 9; i++, fractionDigits++) {
+          int digit = charAt(source, bytes, i) - '0';
+          if (digit < 0 || digit > 9) break;
+          if (fractionDigits < 3) millis = millis * 10 + digit;
+        }
+        for (; fractionDigits < 3; fractionDigits++) {
+          millis *= 10;
+        }
+      }
+    }
+    long millisOfDay = toMillisOfDay(hour, minute, second);
+    if (millisOfDay == INVALID) return INVALID;
+    millisOfDay += millis;
+    
+    long offsetMillis = 0;
+    if (i < end) {
+      int sign = charAt(source, bytes, i);
+      if ((sign == 'Z' || sign == 'z') && i + 1 == end) {
+        i++;
+      } else if (sign == '+' || sign == '-') {
+        int offsetHours = end - i >= 3 ? digits(source, bytes, i + 1, 2) : -1;
+        int offsetMinutes = 0;
+        i += 3;
+        if (i < end) {
+          offsetMinutes = end - i == 3 && charAt(source, bytes, i) == ':' ? digits(source, bytes, i + 1, 2) : -1;
+          i = end;
+        }
+        if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59) return INVALID;
+        offsetMillis = (offsetHours * 60L + offsetMinutes) * CDate.MINUTE * (sign == '-' ? -1 : 1);
+      } else {
+        return INVALID;
+      }
+    }
+    if (i != end) return INVALID;
+    long time = toMillis(year, month, day, millisOfDay);
+    return time == INVALID ? INVALID : time - offsetMillis;
+  }
+  
+  private static long toMillisOfDay(int hour, int minute, int second) {
+    if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) return INVALID;
+    return ((hour * 60L + minute) * 60 + second) * CDate.SECOND;
+  }
+  
+  private static long toMillis(int year, int month, int day, long millisOfDay) {
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > CCalendar.lengthOfMonth(year, month)) return INVALID;
+    return CCalendar.epochDay(year, month, day) * CDate.DAY_IN_MS + millisOfDay;
+  }
+  
+  /**
+   * Reads exactly {@code count} ASCII digits, returning {@code -1} if any is not a digit.
+   */
+  private static int digits(Object source, boolean bytes, int i, int count) {
+    int value = 0;
+    for (int end = i + count; i < end; i++) {
+      int digit = charAt(source, bytes, i) - '0';
+      if (digit < 0 || digit > 9) return -1;
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+  
+  private static int charAt(Object source, boolean bytes, int index) {
+    return bytes ? ((byte[]) source)[index] & 0xFF : ((CharSequence) source).charAt(index);
+  }
+  
+  private static int length(Object source, boolean bytes) {
+    return bytes ? ((byte[]) source).length : ((CharSequence) source).length();
+  }
+}
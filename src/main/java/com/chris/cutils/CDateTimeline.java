@@ -0,0 +1,268 @@
+package com.chris.cutils;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.LongStream;
+
+/**
+ * A sorted, growable sequence of timestamps stored as epoch millis in a single {@code long[]}, about 8 bytes per
+ * entry.
+ * <p>
+ * Appending a timestamp that is not earlier than the last one is {@code O(1)} amortized; out-of-order timestamps are
+ * inserted in place. Range queries binary-search the array and return indexes; ranges are half-open
+ * {@code [from, to)} like a filter on {@code isGreaterOrEqual(from) && isLess(to)}. {@link CDate} objects are only
+ * created by {@link #getDate(int)} and the {@link #asList()} view. Duplicates are kept. Not thread-safe.
+ */
+public final class CDateTimeline {
+  
+  private static final long[] EMPTY = new long[0];
+  
+  private long[] times;
+  private int size;
+  
+  public CDateTimeline() {
+    this.times = EMPTY;
+  }
+  
+  public CDateTimeline(int initialCapacity) {
+    if (initialCapacity < 0) throw new IllegalArgumentException("Negative capacity: " + initialCapacity);
+    this.times = initialCapacity == 0 ? EMPTY : new long[initialCapacity];
+  }
+  
+  private CDateTimeline(long[] sorted, int size) {
+    this.times = sorted;
+    this.size = size;
+  }
+  
+  /**
+   * Returns a timeline of the given epoch millis, in any order. The array is copied.
+   */
+  public static CDateTimeline of(long... times) {
+    long[] sorted = times.clone();
+    Arrays.sort(sorted);
+    return new CDateTimeline(sorted, sorted.length);
+  }
+  
+  public static CDateTimeline of(Collection<CDate> dates) {
+    long[] sorted = new long[dates.size()];
+    int i = 0;
+    for (CDate date : dates) {
+      sorted[i++] = date.getTime();
+    }
+    Arrays.sort(sorted);
+    return new CDateTimeline(sorted, sorted.length);
+  }
+  
+  public int size() {
+    return this.size;
+  }
+  
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+  
+  public long get(int index) {
+    return this.times[checkIndex(index)];
+  }
+  
+  public CDate getDate(int index) {
+    return new CDate(get(index));
+  }
+  
+  public void add(CDate date) {
+    add(date.getTime());
+  }
+  
+  public void add(long time) {
+    int n = this.size;
+    if (n == this.times.length) this.times = Arrays.copyOf(this.times, Math.max(8, n + (n >> 1)));
+    if (n == 0 || time >= this.times[n - 1]) {
+      this.times[n] = time;
+    } else {
+      int index = upperBound(time);
+      System.arraycopy(this.times, index, this.times, index + 1, n - index);
+      this.times[index] = time;
+    }
+    this.size = n + 1;
+  }
+  
+  /**
+   * Removes the entries at indexes {@code [fromIndex, toIndex)}, e.g. to drop everything before a retention cutoff
+   * with {@code removeRange(0, lowerBound(cutoff))}.
+   */
+  public void removeRange(int fromIndex, int toIndex) {
+    if (fromIndex < 0 || fromIndex > toIndex || toIndex > this.size) {
+      throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds for size "
+          + this.size);
+    }
+    System.arraycopy(this.times, toIndex, this.times, fromIndex, this.size - toIndex);
+    this.size -= toIndex - fromIndex;
+  }
+  
+  public void clear() {
+    this.size = 0;
+  }
+  
+  /**
+   * Returns the index of the first entry at or after {@code time}, or {@link #size()} if there is none.
+   */
+  public int lowerBound(long time) {
+    int lo = 0;
+    int hi = this.size;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (this.times[mid] < time) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+  
+  /**
+   * Returns the index of the first entry after {@code time}, or {@link #size()} if there is none.
+   */
+  public int upperBound(long time) {
+    int lo = 0;
+    int hi = this.size;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (this.times[mid] <= time) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+  
+  /**
+   * Returns the number of entries in {@code [from, to)}.
+   */
+  public int count(long from, long to) {
+    return from >= to ? 0 : lowerBound(to) - lowerBound(from);
+  }
+  
+  public int count(CDate from, CDate to) {
+    return count(from.getTime(), to.getTime());
+  }
+  
+  /**
+   * Returns the index of the last entry at or before {@code time}, or {@code -1}.
+   */
+  public int floorIndex(long time) {
+    return upperBound(time) - 1;
+  }
+  
+  /**
+   * Returns the index of the first entry at or after {@code time}, or {@code -1}.
+   */
+  public int ceilingIndex(long time) {
+    int index = lowerBound(time);
+    return index == this.size ? -1 : index;
+  }
+  
+  /**
+   * Returns the index of the entry closest to {@code time}, preferring the earlier one on a tie, or {@code -1} if the
+   * timeline is empty.
+   */
+  public int nearestIndex(long time) {
+    int ceiling = lowerBound(time);
+    if (ceiling == 0) return this.size == 0 ? -1 : 0;
+    if (ceiling == this.size) return ceiling - 1;
+    // compare as unsigned distances so that extreme values cannot overflow
+    long before = time - this.times[ceiling - 1];
+    long after = this.times[ceiling] - time;
+    return Long.compareUnsigned(after, before) < 0 ? ceiling : ceiling - 1;
+  }
+  
+  public CDate floor(CDate date) {
+    return dateAt(floorIndex(date.getTime()));
+  }
+  
+  public CDate ceiling(CDate date) {
+    return dateAt(ceilingIndex(date.getTime()));
+  }
+  
+  public CDate nearest(CDate date) {
+    return dateAt(nearestIndex(date.getTime()));
+  }
+  
+  /**
+   * Counts the entries of {@code [from, to)} in consecutive buckets of {@code bucketMillis}, starting at {@code from};
+   * the last bucket may be partial.
+   */
+  public int[] bucketCounts(long from, long to, long bucketMillis) {
+    if (bucketMillis <= 0) throw new IllegalArgumentException("Bucket size must be positive");
+    if (from >= to) return new int[0];
+    long span = Math.subtractExact(to, from);
+    long buckets = span / bucketMillis + (span % bucketMillis == 0 ? 0 : 1);
+    if (buckets > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Too many buckets: " + buckets);
+    int[] counts = new int[(int) buckets];
+    long[] ts = this.times;
+    for (int i = lowerBound(from), end = lowerBound(to); i < end; i++) {
+      counts[(int) ((ts[i] - from) / bucketMillis)]++;
+    }
+    return counts;
+  }
+  
+  public int[] countPerDay(CDate from, CDate to) {
+    return bucketCounts(from.getTime(), to.getTime(), CDate.DAY_IN_MS);
+  }
+  
+  public int[] countPerHour(CDate from, CDate to) {
+    return bucketCounts(from.getTime(), to.getTime(), CDate.HOUR);
+  }
+  
+  /**
+   * Returns a new timeline holding the entries of both, merged in one linear pass.
+   */
+  public CDateTimeline merge(CDateTimeline other) {
+    long[] a = this.times;
+    long[] b = other.times;
+    int na = this.size;
+    int nb = other.size;
+    long[] merged = new long[Math.addExact(na, nb)];
+    int i = 0;
+    int j = 0;
+    for (int k = 0; k < merged.length; k++) {
+      merged[k] = j == nb || (i < na && a[i] <= b[j]) ? a[i++] : b[j++];
+    }
+    return new CDateTimeline(merged, merged.length);
+  }
+  
+  public long[] toArray() {
+    return Arrays.copyOf(this.times, this.size);
+  }
+  
+  public LongStream stream() {
+    return Arrays.stream(this.times, 0, this.size);
+  }
+  
+  /**
+   * Returns a read-only list view; each {@code get} creates a new {@link CDate}.
+   */
+  public List<CDate> asList() {
+    return new DateList();
+  }
+  
+  private final class DateList extends AbstractList<CDate> implements RandomAccess {
+    
+    @Override
+    public CDate get(int index) {
+      return getDate(index);
+    }
+    
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+  
+  private CDate dateAt(int index) {
+    return index < 0 ? null : new CDate(this.times[index]);
+  }
+  
+  private int checkIndex(int index) {
+    if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException(index);
+    return index;
+  }
+}
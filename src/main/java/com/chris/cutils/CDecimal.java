@@ -1,10 +1,14 @@
 package com.chris.cutils;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serial;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.text.DecimalFormat;
+
+import static com.chris.cutils.CDecimalMath.INFLATED;
+import static com.chris.cutils.CDecimalMath.POW10;
 
 public class CDecimal extends Number implements Comparable<CDecimal>, Serializable {
   
@@ -23,14 +27,43 @@ public class CDecimal extends Number implements Comparable<CDecimal>, Serializab
   public static final CDecimal TWELVE = valueOf(12);
   public static final CDecimal HUNDRED = valueOf(100);
   
+  private final transient long compact;
+  private final transient int scale;
   private final BigDecimal value;
+  private transient BigDecimal cached;
   
   public CDecimal(BigDecimal value) {
-    this.value = value == null ? BD_ZERO : value;
+    if (value == null) value = BD_ZERO;
+    long unscaled = CDecimalMath.compactOf(value);
+    if (unscaled != INFLATED) {
+      this.compact = unscaled;
+      this.value = null;
+      this.cached = value;
+    } else {
+      this.compact = INFLATED;
+      this.value = value;
+    }
+    this.scale = value.scale();
+  }
+  
+  private CDecimal(long compact, int scale) {
+    this.compact = compact;
+    this.scale = scale;
+    this.value = null;
+  }
+  
+  public static CDecimal valueOf(long unscaledValue, int scale) {
+    return unscaledValue == INFLATED
+        ? new CDecimal(BigDecimal.valueOf(unscaledValue, scale))
+        : new CDecimal(unscaledValue, scale);
+  }
+  
+  public static CDecimal valueOf(long value) {
+    return valueOf(value, 0);
   }
   
   public static CDecimal valueOf(int value) {
-    return new CDecimal(BigDecimal.valueOf(value));
+    return new CDecimal(value, 0);
   }
   
   public static CDecimal valueOf(double value) {
@@ -38,51 +71,101 @@ public class CDecimal extends Number implements Comparable<CDecimal>, Serializab
   }
   
   public static CDecimal valueOf(String value) {
-    return new CDecimal(new BigDecimal(value));
+    CDecimal parsed = CDecimalParser.parse(value, null);
+    return parsed != null ? parsed : new CDecimal(new BigDecimal(value));
   }
   
   public static CDecimal fromString(String value) {
-    try {
-      return valueOf(value);
-    } catch (NumberFormatException e) {
-      return ZERO;
-    }
+    return CDecimalParser.parse(value, ZERO);
   }
   
   public BigDecimal getValue() {
-    return value;
+    if (this.value != null) return this.value;
+    BigDecimal bd = this.cached;
+    if (bd == null) {
+      bd = BigDecimal.valueOf(this.compact, this.scale);
+      this.cached = bd;
+    }
+    return bd;
+  }
+  
+  boolean isCompact() {
+    return this.compact != INFLATED;
+  }
+  
+  /**
+   * Returns the unscaled value, or {@link CDecimalMath#INFLATED} if it does not fit in a {@code long}.
+   */
+  long compactValue() {
+    return this.compact;
   }
   
   @Override
   public int intValue() {
-    return this.value.intValue();
+    return this.compact != INFLATED && this.scale == 0 ? (int) this.compact : getValue().intValue();
   }
   
   @Override
   public long longValue() {
-    return this.value.longValue();
+    return this.compact != INFLATED && this.scale == 0 ? this.compact : getValue().longValue();
   }
   
   @Override
   public float floatValue() {
-    return this.value.floatValue();
+    return this.compact != INFLATED && this.scale == 0 ? (float) this.compact : getValue().floatValue();
   }
   
   @Override
   public double doubleValue() {
-    return this.value.doubleValue();
+    if (this.compact != INFLATED) {
+      if (this.scale == 0) return (double) this.compact;
+      if (this.scale > 0 && this.scale < POW10.length && Math.abs(this.compact) < 1L << 52) {
+        return (double) this.compact / (double) POW10[this.scale];
+      }
+    }
+    return getValue().doubleValue();
   }
   
   public CDecimal add(CDecimal value) {
-    return value == null ? this : new CDecimal(this.value.add(value.value));
+    if (value == null) return this;
+    if (this.compact != INFLATED && value.compact != INFLATED) {
+      CDecimal sum = addCompact(this.compact, this.scale, value.compact, value.scale);
+      if (sum != null) return sum;
+    }
+    return new CDecimal(this.getValue().add(value.getValue()));
   }
   
   public CDecimal subtract(CDecimal value) {
-    return value == null ? this : new CDecimal(this.value.subtract(value.value));
+    if (value == null) return this;
+    if (this.compact != INFLATED && value.compact != INFLATED) {
+      CDecimal difference = addCompact(this.compact, this.scale, -value.compact, value.scale);
+      if (difference != null) return difference;
+    }
+    return new CDecimal(this.getValue().subtract(value.getValue()));
+  }
+  
+  private static CDecimal addCompact(long a, int aScale, long b, int bScale) {
+    if (aScale < bScale) {
+      a = CDecimalMath.scaleUp(a, (long) bScale - aScale);
+      aScale = bScale;
+    } else if (bScale < aScale) {
+      b = CDecimalMath.scaleUp(b, (long) aScale - bScale);
+    }
+    if (a == INFLATED || b == INFLATED) return null;
+    long sum = CDecimalMath.add(a, b);
+    return sum == INFLATED ? null : new CDecimal(sum, aScale);
   }
   
   public CDecimal multiply(CDecimal value) {
-    return value == null ? ZERO : new CDecimal(this.value.multiply(value.value));
+    if (value == null) return ZERO;
+    if (this.compact != INFLATED && value.compact != INFLATED) {
+      long productScale = (long) this.scale + value.scale;
+      long product = CDecimalMath.multiply(this.compact, value.compact);
+      if (product != INFLATED && productScale == (int) productScale) {
+        return new CDecimal(product, (int) productScale);
+      }
+    }
+    return new CDecimal(this.getValue().multiply(value.getValue()));
   }
   
   public CDecimal divide(CDecimal value) {
@@ -90,15 +173,29 @@ public class CDecimal extends Number implements Comparable<CDecimal>, Serializab
   }
   
   public CDecimal divide(CDecimal value, RoundingMode mode) {
-    return value == null ? ZERO : new CDecimal(this.value.divide(value.value, mode));
+    if (value == null) return ZERO;
+    if (this.compact != INFLATED && value.compact != INFLATED && value.compact != 0) {
+      // the quotient keeps this scale: round(a * 10^bScale / b)
+      long dividend = this.compact;
+      long divisor = value.compact;
+      if (value.scale >= 0) {
+        dividend = CDecimalMath.scaleUp(dividend, value.scale);
+      } else {
+        divisor = CDecimalMath.scaleUp(divisor, -(long) value.scale);
+      }
+      if (dividend != INFLATED && divisor != INFLATED) {
+        return new CDecimal(CDecimalMath.divide(dividend, divisor, mode), this.scale);
+      }
+    }
+    return new CDecimal(this.getValue().divide(value.getValue(), mode));
   }
   
   public CDecimal abs() {
-    return isNegative() ? new CDecimal(this.value.abs()) : this;
+    return isNegative() ? negate() : this;
   }
   
   public CDecimal negate() {
-    return new CDecimal(this.value.negate());
+    return this.compact != INFLATED ? new CDecimal(-this.compact, this.scale) : new CDecimal(this.value.negate());
   }
   
   public CDecimal setScale(int scale) {
@@ -106,23 +203,32 @@ public class CDecimal extends Number implements Comparable<CDecimal>, Serializab
   }
   
   public CDecimal setScale(int scale, RoundingMode mode) {
-    return new CDecimal(this.value.setScale(scale, mode));
+    if (this.compact != INFLATED) {
+      if (scale == this.scale) return this;
+      long rescaled = CDecimalMath.rescale(this.compact, this.scale, scale, mode);
+      if (rescaled != INFLATED) return new CDecimal(rescaled, scale);
+    }
+    return new CDecimal(this.getValue().setScale(scale, mode));
   }
   
   public int scale() {
-    return this.value.scale();
+    return this.scale;
+  }
+  
+  public int signum() {
+    return this.compact != INFLATED ? Long.signum(this.compact) : this.value.signum();
   }
   
   public boolean isZero() {
-    return this.compareTo(ZERO) == 0;
+    return signum() == 0;
   }
   
   public boolean isPositive() {
-    return this.compareTo(ZERO) > 0;
+    return signum() > 0;
   }
   
   public boolean isNegative() {
-    return this.compareTo(ZERO) < 0;
+    return signum() < 0;
   }
   
   public boolean isGreaterThan(CDecimal other) {
@@ -150,37 +256,76 @@ public class CDecimal extends Number implements Comparable<CDecimal>, Serializab
   }
   
   public CDecimal pow(int exponent) {
-    return exponent == 1 ? this : new CDecimal(this.value.pow(exponent));
+    return exponent == 1 ? this : new CDecimal(getValue().pow(exponent));
   }
   
   public CDecimal percentOf(CDecimal base) {
     return base == null ? ZERO : this.multiply(base).divide(HUNDRED);
   }
   
+  /**
+   * Returns a hash code of the numeric value alone, computed on the value with trailing zeros stripped, so that
+   * values that are {@link #equals(Object) equal} such as {@code 1.0} and {@code 1.00} hash alike.
+   */
   @Override
   public int hashCode() {
-    return this.value.hashCode();
+    long unscaled = this.compact;
+    long scale = this.scale;
+    if (unscaled == INFLATED) {
+      BigDecimal stripped = this.value.stripTrailingZeros();
+      unscaled = CDecimalMath.compactOf(stripped);
+      if (unscaled == INFLATED) return 31 * stripped.unscaledValue().hashCode() + stripped.scale();
+      scale = stripped.scale();
+    } else if (unscaled == 0) {
+      return 0;
+    } else {
+      int zeros = CDecimalMath.trailingZeros(unscaled);
+      unscaled /= POW10[zeros];
+      scale -= zeros;
+    }
+    return 31 * Long.hashCode(unscaled) + (int) scale;
   }
   
   @Override
   public boolean equals(Object obj) {
     if (obj == this) return true;
     if (!(obj instanceof CDecimal other)) return false;
-    return this.value.compareTo(other.value) == 0;
+    return this.compareTo(other) == 0;
   }
   
   @Override
   public String toString() {
-    return value.toString();
+    return getValue().toString();
   }
   
   public String format(String pattern) {
-    DecimalFormat df = new DecimalFormat(pattern);
-    return df.format(this.value);
+    return CDecimalFormat.of(pattern).format(this);
   }
   
   @Override
   public int compareTo(CDecimal o) {
-    return this.value.compareTo(o.value);
+    if (this.compact != INFLATED && o.compact != INFLATED) {
+      long a = this.compact;
+      long b = o.compact;
+      if (this.scale < o.scale) {
+        a = CDecimalMath.scaleUp(a, (long) o.scale - this.scale);
+      } else if (o.scale < this.scale) {
+        b = CDecimalMath.scaleUp(b, (long) this.scale - o.scale);
+      }
+      if (a != INFLATED && b != INFLATED) return Long.compare(a, b);
+    }
+    return this.getValue().compareTo(o.getValue());
+  }
+  
+  @Serial
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("value", getValue());
+    out.writeFields();
+  }
+  
+  @Serial
+  private Object readResolve() {
+    return new CDecimal(this.value);
   }
 }
@@ -0,0 +1,184 @@
+package com.chris.cutils;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+import static com.chris.cutils.CDecimalMath.INFLATED;
+
+/**
+ * A concurrent {@link CDecimal} sum, modeled on {@link java.util.concurrent.atomic.LongAdder}.
+ * <p>
+ * Values are kept as unscaled {@code long} partial sums at a fixed scale. Updates start on a single base cell and
+ * spread over padded striped cells once threads contend. A partial sum that would overflow, and any value that
+ * cannot be represented exactly at the adder's scale, is moved into an exact {@link BigDecimal} spill, so
+ * {@link #sum()} is always exact.
+ * <p>
+ * Like {@code LongAdder}, {@link #sum()} is not an atomic snapshot when updates happen concurrently.
+ */
+public final class CDecimalAdder {
+  
+  // longs between two cells, so that each cell sits on its own cache line
+  private static final int STRIDE = 16;
+  private static final int CELL_COUNT =
+      Math.max(2, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+  
+  private final int scale;
+  private final AtomicLong base = new AtomicLong();
+  private final AtomicReference<BigDecimal> spill = new AtomicReference<>(BigDecimal.ZERO);
+  private volatile AtomicLongArray cells;
+  
+  public CDecimalAdder(int scale) {
+    this.scale = scale;
+  }
+  
+  /**
+   * Returns a concurrent, unordered collector summing {@link CDecimal} values with a {@code CDecimalAdder}, so a
+   * parallel stream accumulates into one striped adder instead of merging per-thread results.
+   */
+  public static Collector<CDecimal, ?, CDecimal> summing(int scale) {
+    return summing(scale, Function.identity());
+  }
+  
+  public static <T> Collector<T, ?, CDecimal> summing(int scale, Function<? super T, CDecimal> mapper) {
+    return Collector.of(
+        () -> new CDecimalAdder(scale),
+        (adder, element) -> adder.add(mapper.apply(element)),
+        (left, right) -> {
+          left.add(right);
+          return left;
+        },
+        CDecimalAdder::sum,
+        Collector.Characteristics.CONCURRENT,
+        Collector.Characteristics.UNORDERED);
+  }
+  
+  public int scale() {
+    return scale;
+  }
+  
+  public void add(CDecimal value) {
+    if (value == null) return;
+    long unscaled = INFLATED;
+    if (value.isCompact() && value.scale() <= this.scale) {
+      unscaled = CDecimalMath.scaleUp(value.compactValue(), (long) this.scale - value.scale());
+    }
+    if (unscaled != INFLATED) {
+      addUnscaled(unscaled);
+    } else {
+      spill(value.getValue());
+    }
+  }
+  
+  public void add(CDecimalAdder other) {
+    add(other.sum());
+  }
+  
+  /**
+   * Adds a value given as an unscaled {@code long} at this adder's scale.
+   */
+  public void addUnscaled(long unscaled) {
+    AtomicLongArray cs = this.cells;
+    if (cs == null) {
+      long current = this.base.get();
+      if (tryAdd(this.base, current, unscaled)) return;
+      cs = cells();
+    }
+    int index = (int) (Thread.currentThread().getId() * 0x9E3779B97F4A7C15L >>> 32);
+    for (;;) {
+      int slot = (index & (CELL_COUNT - 1)) * STRIDE;
+      long current = cs.get(slot);
+      long sum = CDecimalMath.add(current, unscaled);
+      if (sum != INFLATED) {
+        if (cs.compareAndSet(slot, current, sum)) return;
+      } else if (cs.compareAndSet(slot, current, 0)) {
+        spill(BigDecimal.valueOf(current, this.scale).add(BigDecimal.valueOf(unscaled, this.scale)));
+        return;
+      }
+      index = ThreadLocalRandom.current().nextInt();
+    }
+  }
+  
+  public CDecimal sum() {
+    long total = this.base.get();
+    BigDecimal extra = this.spill.get();
+    AtomicLongArray cs = this.cells;
+    if (cs != null) {
+      for (int slot = 0; slot < cs.length(); slot += STRIDE) {
+        long value = cs.get(slot);
+        long sum = CDecimalMath.add(total, value);
+        if (sum == INFLATED) {
+          extra = extra.add(BigDecimal.valueOf(value, this.scale));
+        } else {
+          total = sum;
+        }
+      }
+    }
+    return combine(total, extra);
+  }
+  
+  /**
+   * Returns the {@link #sum()} and resets the adder to zero, like {@code LongAdder.sumThenReset()}.
+   */
+  public CDecimal sumThenReset() {
+    long total = this.base.getAndSet(0);
+    BigDecimal extra = this.spill.getAndSet(BigDecimal.ZERO);
+    AtomicLongArray cs = this.cells;
+    if (cs != null) {
+      for (int slot = 0; slot < cs.length(); slot += STRIDE) {
+        long value = cs.getAndSet(slot, 0);
+        long sum = CDecimalMath.add(total, value);
+        if (sum == INFLATED) {
+          extra = extra.add(BigDecimal.valueOf(value, this.scale));
+        } else {
+          total = sum;
+        }
+      }
+    }
+    return combine(total, extra);
+  }
+  
+  public void reset() {
+    sumThenReset();
+  }
+  
+  @Override
+  public String toString() {
+    return sum().toString();
+  }
+  
+  private CDecimal combine(long total, BigDecimal extra) {
+    if (extra == BigDecimal.ZERO) return CDecimal.valueOf(total, this.scale);
+    return new CDecimal(BigDecimal.valueOf(total, this.scale).add(extra));
+  }
+  
+  private boolean tryAdd(AtomicLong cell, long current, long unscaled) {
+    long sum = CDecimalMath.add(current, unscaled);
+    if (sum != INFLATED) return cell.compareAndSet(current, sum);
+    if (!cell.compareAndSet(current, 0)) return false;
+    spill(BigDecimal.valueOf(current, this.scale).add(BigDecimal.valueOf(unscaled, this.scale)));
+    return true;
+  }
+  
+  private void spill(BigDecimal value) {
+    this.spill.accumulateAndGet(value, BigDecimal::add);
+  }
+  
+  private AtomicLongArray cells() {
+    AtomicLongArray cs = this.cells;
+    if (cs == null) {
+      synchronized (this) {
+        cs = this.cells;
+        if (cs == null) {
+          cs = new AtomicLongArray(CELL_COUNT * STRIDE);
+          this.cells = cs;
+        }
+      }
+    }
+    return cs;
+  }
+}
@@ -0,0 +1,481 @@
+package com.chris.cutils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static com.chris.cutils.CDecimalMath.INFLATED;
+import static com.chris.cutils.CDecimalMath.POW10;
+
+/**
+ * An immutable column of decimal values sharing one scale.
+ * <p>
+ * Values are stored as a {@code long[]} of unscaled values; the rare rows that do not fit in a {@code long} are kept
+ * as {@link BigDecimal}s in a side array. Bulk kernels run over the primitive array in tight loops and fall back to
+ * {@code BigDecimal} only for overflowing rows, giving the same results, row by row, as the matching
+ * {@link CDecimal} operation. After {@link #parallel()}, kernels on columns of at least {@link #PARALLEL_THRESHOLD}
+ * rows are split across the common fork-join pool.
+ */
+public final class CDecimalArray {
+  
+  public static final int PARALLEL_THRESHOLD = 1 << 16;
+  
+  private static final int CHUNK = 1 << 14;
+  private static final BigDecimal BD_HUNDRED = BigDecimal.valueOf(100);
+  
+  private final long[] values;
+  private final BigDecimal[] overflow;
+  private final int scale;
+  private final boolean parallel;
+  
+  private CDecimalArray(long[] values, BigDecimal[] overflow, int scale, boolean parallel) {
+    this.values = values;
+    this.overflow = overflow;
+    this.scale = scale;
+    this.parallel = parallel;
+  }
+  
+  /**
+   * Builds a column from {@code CDecimal}s, using the largest scale among them so that every value is kept exactly.
+   */
+  public static CDecimalArray of(CDecimal... values) {
+    int scale = values.length == 0 ? 0 : Integer.MIN_VALUE;
+    for (CDecimal value : values) {
+      scale = Math.max(scale, value.scale());
+    }
+    return of(values, scale, RoundingMode.UNNECESSARY);
+  }
+  
+  public static CDecimalArray of(CDecimal[] values, int scale, RoundingMode mode) {
+    long[] unscaled = new long[values.length];
+    BigDecimal[] overflow = null;
+    for (int i = 0; i < values.length; i++) {
+      CDecimal value = values[i];
+      long u = value.isCompact() ? CDecimalMath.rescale(value.compactValue(), value.scale(), scale, mode) : INFLATED;
+      if (u == INFLATED) {
+        BigDecimal bd = value.getValue().setScale(scale, mode);
+        u = CDecimalMath.compactOf(bd);
+        if (u == INFLATED) {
+          if (overflow == null) overflow = new BigDecimal[values.length];
+          overflow[i] = bd;
+        }
+      }
+      unscaled[i] = u;
+    }
+    return new CDecimalArray(unscaled, overflow, scale, false);
+  }
+  
+  /**
+   * Wraps an array of unscaled values without copying it; the caller must not modify it afterwards.
+   *
+   * @throws IllegalArgumentException if the array contains {@code Long.MIN_VALUE}.
+   */
+  public static CDecimalArray ofUnscaled(long[] unscaled, int scale) {
+    for (long u : unscaled) {
+      if (u == INFLATED) throw new IllegalArgumentException("Long.MIN_VALUE is not a valid unscaled value");
+    }
+    return new CDecimalArray(unscaled, null, scale, false);
+  }
+  
+  /**
+   * Wraps parsed unscaled values and their overflow rows, as produced by a bulk reader, without copying.
+   */
+  static CDecimalArray wrap(long[] unscaled, BigDecimal[] overflow, int scale) {
+    return new CDecimalArray(unscaled, overflow, scale, false);
+  }
+  
+  public CDecimalArray parallel() {
+    return this.parallel ? this : new CDecimalArray(this.values, this.overflow, this.scale, true);
+  }
+  
+  public CDecimalArray sequential() {
+    return this.parallel ? new CDecimalArray(this.values, this.overflow, this.scale, false) : this;
+  }
+  
+  public boolean isParallel() {
+    return parallel;
+  }
+  
+  public int length() {
+    return values.length;
+  }
+  
+  public int scale() {
+    return scale;
+  }
+  
+  public CDecimal get(int index) {
+    long u = this.values[index];
+    return u != INFLATED ? CDecimal.valueOf(u, this.scale) : new CDecimal(this.overflow[index]);
+  }
+  
+  /**
+   * Returns the unscaled value of a row, or {@code Long.MIN_VALUE} if the row does not fit in a {@code long}.
+   */
+  public long unscaledValue(int index) {
+    return values[index];
+  }
+  
+  public CDecimal[] toArray() {
+    CDecimal[] result = new CDecimal[this.values.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = get(i);
+    }
+    return result;
+  }
+  
+  public CDecimalArray add(CDecimalArray other) {
+    checkLength(other);
+    int s = Math.max(this.scale, other.scale);
+    CDecimalArray a = this.upscale(s);
+    CDecimalArray b = other.upscale(s);
+    long[] x = a.values;
+    long[] y = b.values;
+    long[] out = new long[x.length];
+    long slow = run(x.length, (from, to) -> {
+      long bad = 0;
+      for (int i = from; i < to; i++) {
+        long p = x[i];
+        long q = y[i];
+        long r = p + q;
+        boolean overflowed = ((p ^ r) & (q ^ r)) < 0 | p == INFLATED | q == INFLATED | r == INFLATED;
+        out[i] = overflowed ? INFLATED : r;
+        bad += overflowed ? 1 : 0;
+      }
+      return bad;
+    });
+    return finish(out, s, slow, i -> a.bigAt(i).add(b.bigAt(i)));
+  }
+  
+  public CDecimalArray subtract(CDecimalArray other) {
+    checkLength(other);
+    int s = Math.max(this.scale, other.scale);
+    CDecimalArray a = this.upscale(s);
+    CDecimalArray b = other.upscale(s);
+    long[] x = a.values;
+    long[] y = b.values;
+    long[] out = new long[x.length];
+    long slow = run(x.length, (from, to) -> {
+      long bad = 0;
+      for (int i = from; i < to; i++) {
+        long p = x[i];
+        long q = y[i];
+        long r = p - q;
+        boolean overflowed = ((p ^ q) & (p ^ r)) < 0 | p == INFLATED | q == INFLATED | r == INFLATED;
+        out[i] = overflowed ? INFLATED : r;
+        bad += overflowed ? 1 : 0;
+      }
+      return bad;
+    });
+    return finish(out, s, slow, i -> a.bigAt(i).subtract(b.bigAt(i)));
+  }
+  
+  public CDecimalArray multiply(CDecimalArray other) {
+    checkLength(other);
+    int s = productScale(this.scale, other.scale);
+    long[] x = this.values;
+    long[] y = other.values;
+    long[] out = new long[x.length];
+    long slow = run(x.length, (from, to) -> {
+      long bad = 0;
+      for (int i = from; i < to; i++) {
+        long p = x[i];
+        long q = y[i];
+        long r = p * q;
+        boolean overflowed = Math.multiplyHigh(p, q) != (r >> 63) | p == INFLATED | q == INFLATED | r == INFLATED;
+        out[i] = overflowed ? INFLATED : r;
+        bad += overflowed ? 1 : 0;
+      }
+      return bad;
+    });
+    return finish(out, s, slow, i -> this.bigAt(i).multiply(other.bigAt(i)));
+  }
+  
+  public CDecimalArray add(CDecimal value) {
+    return add(broadcast(value));
+  }
+  
+  public CDecimalArray subtract(CDecimal value) {
+    return subtract(broadcast(value));
+  }
+  
+  public CDecimalArray multiply(CDecimal value) {
+    int s = productScale(this.scale, value.scale());
+    long q = value.compactValue();
+    long[] x = this.values;
+    long[] out = new long[x.length];
+    long slow = run(x.length, (from, to) -> {
+      long bad = 0;
+      for (int i = from; i < to; i++) {
+        long p = x[i];
+        long r = p * q;
+        boolean overflowed = Math.multiplyHigh(p, q) != (r >> 63) | p == INFLATED | q == INFLATED | r == INFLATED;
+        out[i] = overflowed ? INFLATED : r;
+        bad += overflowed ? 1 : 0;
+      }
+      return bad;
+    });
+    BigDecimal factor = value.getValue();
+    return finish(out, s, slow, i -> this.bigAt(i).multiply(factor));
+  }
+  
+  /**
+   * Row-wise {@link CDecimal#percentOf(CDecimal)}: {@code value * base / 100}, rounded {@code HALF_EVEN} at the
+   * product scale.
+   */
+  public CDecimalArray percentOf(CDecimal base) {
+    int s = productScale(this.scale, base.scale());
+    long q = base.compactValue();
+    long[] x = this.values;
+    long[] out = new long[x.length];
+    long slow = run(x.length, (from, to) -> {
+      long bad = 0;
+      for (int i = from; i < to; i++) {
+        long p = x[i];
+        long r = p * q;
+        boolean overflowed = Math.multiplyHigh(p, q) != (r >> 63) | p == INFLATED | q == INFLATED | r == INFLATED;
+        out[i] = overflowed ? INFLATED : CDecimalMath.divide(r, 100, RoundingMode.HALF_EVEN);
+        bad += overflowed ? 1 : 0;
+      }
+      return bad;
+    });
+    BigDecimal factor = base.getValue();
+    return finish(out, s, slow, i -> this.bigAt(i).multiply(factor).divide(BD_HUNDRED, RoundingMode.HALF_EVEN));
+  }
+  
+  public CDecimalArray setScale(int newScale, RoundingMode mode) {
+    if (newScale == this.scale) return this;
+    long diff = (long) newScale - this.scale;
+    long[] x = this.values;
+    long[] out = new long[x.length];
+    long slow;
+    if (diff > 0) {
+      long factor = diff < POW10.length ? POW10[(int) diff] : INFLATED;
+      slow = run(x.length, (from, to) -> {
+        long bad = 0;
+        for (int i = from; i < to; i++) {
+          long p = x[i];
+          long r = p * factor;
+          boolean overflowed = Math.multiplyHigh(p, factor) != (r >> 63) | p == INFLATED | factor == INFLATED
+              | r == INFLATED;
+          out[i] = overflowed ? INFLATED : r;
+          bad += overflowed ? 1 : 0;
+        }
+        return bad;
+      });
+    } else {
+      long divisor = -diff < POW10.length ? POW10[(int) -diff] : INFLATED;
+      slow = run(x.length, (from, to) -> {
+        long bad = 0;
+        for (int i = from; i < to; i++) {
+          long p = x[i];
+          boolean overflowed = p == INFLATED | divisor == INFLATED;
+          out[i] = overflowed ? INFLATED : CDecimalMath.divide(p, divisor, mode);
+          bad += overflowed ? 1 : 0;
+        }
+        return bad;
+      });
+    }
+    return finish(out, newScale, slow, i -> this.bigAt(i).setScale(newScale, mode));
+  }
+  
+  public CDecimal sum() {
+    long[] x = this.values;
+    // split every value into a signed high and an unsigned low half, so neither running sum can overflow
+    long[] halves = new long[2];
+    run(x.length, (from, to) -> {
+      long high = 0;
+      long low = 0;
+      for (int i = from; i < to; i++) {
+        long p = x[i] == INFLATED ? 0 : x[i];
+        high += p >> 32;
+        low += p & 0xFFFFFFFFL;
+      }
+      synchronized (halves) {
+        halves[0] += high;
+        halves[1] += low;
+      }
+      return 0;
+    });
+    BigInteger total = null;
+    long compact = CDecimalMath.multiply(halves[0], 1L << 32);
+    if (compact != INFLATED) compact = CDecimalMath.add(compact, halves[1]);
+    if (compact == INFLATED) total = BigInteger.valueOf(halves[0]).shiftLeft(32).add(BigInteger.valueOf(halves[1]));
+    BigDecimal extra = null;
+    if (this.overflow != null) {
+      for (BigDecimal value : this.overflow) {
+        if (value != null) extra = extra == null ? value : extra.add(value);
+      }
+    }
+    if (total == null && extra == null) return CDecimal.valueOf(compact, this.scale);
+    BigDecimal result = total != null ? new BigDecimal(total, this.scale) : BigDecimal.valueOf(compact, this.scale);
+    return new CDecimal(extra == null ? result : result.add(extra));
+  }
+  
+  /**
+   * @throws NoSuchElementException if the column is empty.
+   */
+  public CDecimal min() {
+    return extreme(false);
+  }
+  
+  /**
+   * @throws NoSuchElementException if the column is empty.
+   */
+  public CDecimal max() {
+    return extreme(true);
+  }
+  
+  /**
+   * Returns the sum of the row-wise products, at scale {@code this.scale() + other.scale()}.
+   */
+  public CDecimal dot(CDecimalArray other) {
+    checkLength(other);
+    long[] x = this.values;
+    long[] y = other.values;
+    BigInteger[] partial = {BigInteger.ZERO};
+    run(x.length, (from, to) -> {
+      // 128-bit accumulator, flushed to a BigInteger before its high word can overflow
+      long high = 0;
+      long low = 0;
+      BigInteger spill = BigInteger.ZERO;
+      for (int i = from; i < to; i++) {
+        long p = x[i];
+        long q = y[i];
+        if (p == INFLATED || q == INFLATED) continue;
+        long productLow = p * q;
+        long productHigh = Math.multiplyHigh(p, q);
+        long sum = low + productLow;
+        high += productHigh + (Long.compareUnsigned(sum, low) < 0 ? 1 : 0);
+        low = sum;
+        if (high > 1L << 61 || high < -(1L << 61)) {
+          spill = spill.add(toBigInteger(high, low));
+          high = 0;
+          low = 0;
+        }
+      }
+      BigInteger chunk = spill.add(toBigInteger(high, low));
+      synchronized (partial) {
+        partial[0] = partial[0].add(chunk);
+      }
+      return 0;
+    });
+    int s = productScale(this.scale, other.scale);
+    BigDecimal result = new BigDecimal(partial[0], s);
+    if (this.overflow != null || other.overflow != null) {
+      for (int i = 0; i < x.length; i++) {
+        if (x[i] == INFLATED || y[i] == INFLATED) result = result.add(this.bigAt(i).multiply(other.bigAt(i)));
+      }
+    }
+    return new CDecimal(result);
+  }
+  
+  private CDecimal extreme(boolean max) {
+    long[] x = this.values;
+    if (x.length == 0) throw new NoSuchElementException();
+    long[] best = {max ? Long.MIN_VALUE : Long.MAX_VALUE};
+    run(x.length, (from, to) -> {
+      long result = max ? Long.MIN_VALUE : Long.MAX_VALUE;
+      for (int i = from; i < to; i++) {
+        long p = x[i];
+        // INFLATED is Long.MIN_VALUE, so it never wins a max and only needs masking for min
+        result = max ? Math.max(result, p) : Math.min(result, p == INFLATED ? Long.MAX_VALUE : p);
+      }
+      synchronized (best) {
+        best[0] = max ? Math.max(best[0], result) : Math.min(best[0], result);
+      }
+      return 0;
+    });
+    BigDecimal extreme = null;
+    int overflowRows = 0;
+    if (this.overflow != null) {
+      for (BigDecimal value : this.overflow) {
+        if (value == null) continue;
+        overflowRows++;
+        if (extreme == null || (value.compareTo(extreme) > 0) == max) extreme = value;
+      }
+    }
+    if (overflowRows == x.length) return new CDecimal(extreme);
+    CDecimal compact = CDecimal.valueOf(best[0], this.scale);
+    if (extreme == null) return compact;
+    int cmp = compact.getValue().compareTo(extreme);
+    return (max ? cmp >= 0 : cmp <= 0) ? compact : new CDecimal(extreme);
+  }
+  
+  private CDecimalArray broadcast(CDecimal value) {
+    long u = value.compactValue();
+    long[] filled = new long[this.values.length];
+    Arrays.fill(filled, u);
+    BigDecimal[] overflow = null;
+    if (u == INFLATED) {
+      overflow = new BigDecimal[filled.length];
+      Arrays.fill(overflow, value.getValue());
+    }
+    return new CDecimalArray(filled, overflow, value.scale(), this.parallel);
+  }
+  
+  private CDecimalArray upscale(int newScale) {
+    return newScale == this.scale ? this : setScale(newScale, RoundingMode.UNNECESSARY);
+  }
+  
+  private BigDecimal bigAt(int index) {
+    long u = this.values[index];
+    return u != INFLATED ? BigDecimal.valueOf(u, this.scale) : this.overflow[index];
+  }
+  
+  private void checkLength(CDecimalArray other) {
+    if (other.values.length != this.values.length) {
+      throw new IllegalArgumentException("Length mismatch: " + this.values.length + " != " + other.values.length);
+    }
+  }
+  
+  private static int productScale(int a, int b) {
+    long s = (long) a + b;
+    if (s != (int) s) throw new ArithmeticException(s > 0 ? "Underflow" : "Overflow");
+    return (int) s;
+  }
+  
+  private static BigInteger toBigInteger(long high, long low) {
+    BigInteger unsignedLow = BigInteger.valueOf(low);
+    if (low < 0) unsignedLow = unsignedLow.add(BigInteger.ONE.shiftLeft(64));
+    return BigInteger.valueOf(high).shiftLeft(64).add(unsignedLow);
+  }
+  
+  private CDecimalArray finish(long[] out, int scale, long slowRows, IntFunction<BigDecimal> slow) {
+    BigDecimal[] overflow = null;
+    if (slowRows > 0) {
+      for (int i = 0; i < out.length; i++) {
+        if (out[i] != INFLATED) continue;
+        BigDecimal value = slow.apply(i).setScale(scale, RoundingMode.UNNECESSARY);
+        long u = CDecimalMath.compactOf(value);
+        if (u == INFLATED) {
+          if (overflow == null) overflow = new BigDecimal[out.length];
+          overflow[i] = value;
+        }
+        out[i] = u;
+      }
+    }
+    return new CDecimalArray(out, overflow, scale, this.parallel);
+  }
+  
+  /**
+   * Runs {@code kernel} over {@code [0, length)}, chunked across the common pool when this column is parallel and
+   * large enough, and returns the total number of rows the kernel left for the slow path.
+   */
+  private long run(int length, Kernel kernel) {
+    if (!this.parallel || length < PARALLEL_THRESHOLD) return kernel.apply(0, length);
+    int chunks = (length + CHUNK - 1) / CHUNK;
+    return IntStream.range(0, chunks).parallel()
+        .mapToLong(chunk -> kernel.apply(chunk * CHUNK, Math.min(length, (chunk + 1) * CHUNK)))
+        .sum();
+  }
+  
+  @FunctionalInterface
+  private interface Kernel {
+    long apply(int from, int to);
+  }
+}
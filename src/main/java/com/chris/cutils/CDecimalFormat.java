@@ -0,0 +1,177 @@
+package com.chris.cutils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.chris.cutils.CDecimalMath.INFLATED;
+import static com.chris.cutils.CDecimalMath.POW10;
+
+/**
+ * An immutable, thread-safe compiled {@link DecimalFormat} pattern for {@link CDecimal} values.
+ * <p>
+ * Plain patterns such as {@code #,##0.00}, {@code 0.###} or {@code $#,##0.00;($#,##0.00)} (grouping, minimum integer
+ * digits, fixed or optional fraction digits, literal prefixes and suffixes) are formatted by hand straight from the
+ * unscaled value and written into the caller's {@link StringBuilder} or {@link Appendable}, producing the same text
+ * as {@code DecimalFormat}. Any other pattern (exponents, percent, per-mille, ...) falls back to a per-thread
+ * {@code DecimalFormat} instance.
+ * <p>
+ * Symbols are taken from the default {@link Locale.Category#FORMAT} locale when the pattern is compiled.
+ */
+public final class CDecimalFormat {
+  
+  public static final int MAX_CACHED_PATTERNS = 128;
+  
+  private static final ConcurrentHashMap<String, CDecimalFormat> CACHE = new ConcurrentHashMap<>();
+  
+  private final String pattern;
+  private final Locale locale;
+  private final ThreadLocal<DecimalFormat> fallback;
+  
+  private final boolean fast;
+  private final int minIntegerDigits;
+  private final int minFractionDigits;
+  private final int maxFractionDigits;
+  private final int groupingSize;
+  private final boolean decimalSeparatorAlwaysShown;
+  private final char zeroDigit;
+  private final char groupingSeparator;
+  private final char decimalSeparator;
+  private final String positivePrefix;
+  private final String positiveSuffix;
+  private final String negativePrefix;
+  private final String negativeSuffix;
+  
+  private CDecimalFormat(String pattern, Locale locale) {
+    DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+    DecimalFormat format = new DecimalFormat(pattern, symbols);
+    this.pattern = pattern;
+    this.locale = locale;
+    this.fallback = ThreadLocal.withInitial(() -> (DecimalFormat) format.clone());
+    this.fast = pattern.indexOf('E') < 0
+        && format.getMultiplier() == 1
+        && format.getRoundingMode() == RoundingMode.HALF_EVEN
+        && format.getMinimumIntegerDigits() > 0
+        && format.getMaximumIntegerDigits() == Integer.MAX_VALUE;
+    this.minIntegerDigits = format.getMinimumIntegerDigits();
+    this.minFractionDigits = format.getMinimumFractionDigits();
+    this.maxFractionDigits = format.getMaximumFractionDigits();
+    this.groupingSize = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+    this.decimalSeparatorAlwaysShown = format.isDecimalSeparatorAlwaysShown();
+    this.zeroDigit = symbols.getZeroDigit();
+    this.groupingSeparator = symbols.getGroupingSeparator();
+    this.decimalSeparator = symbols.getDecimalSeparator();
+    this.positivePrefix = format.getPositivePrefix();
+    this.positiveSuffix = format.getPositiveSuffix();
+    this.negativePrefix = format.getNegativePrefix();
+    this.negativeSuffix = format.getNegativeSuffix();
+  }
+  
+  /**
+   * Returns the compiled format for the given pattern, compiling and caching it on first use.
+   *
+   * @param pattern a {@link DecimalFormat} pattern.
+   * @return the compiled format.
+   * @throws IllegalArgumentException if the pattern is invalid.
+   */
+  public static CDecimalFormat of(String pattern) {
+    Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+    CDecimalFormat format = CACHE.get(pattern);
+    if (format != null && format.locale.equals(locale)) return format;
+    format = new CDecimalFormat(pattern, locale);
+    if (CACHE.size() < MAX_CACHED_PATTERNS || CACHE.containsKey(pattern)) {
+      CACHE.put(pattern, format);
+    }
+    return format;
+  }
+  
+  public String getPattern() {
+    return pattern;
+  }
+  
+  public String format(CDecimal value) {
+    if (!this.fast) return this.fallback.get().format(value.getValue());
+    StringBuilder sb = new StringBuilder(24);
+    formatTo(value, sb);
+    return sb.toString();
+  }
+  
+  public void formatTo(CDecimal value, StringBuilder out) {
+    formatTo(value, (Appendable) out);
+  }
+  
+  public void formatTo(CDecimal value, Appendable out) {
+    try {
+      if (this.fast) {
+        write(value, out);
+      } else {
+        out.append(this.fallback.get().format(value.getValue()));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+  
+  private void write(CDecimal value, Appendable out) throws IOException {
+    boolean negative = value.signum() < 0;
+    long magnitude = INFLATED;
+    String digits = null;
+    int scale = value.scale();
+    if (value.isCompact()) {
+      magnitude = Math.abs(value.compactValue());
+      if (scale > this.maxFractionDigits) {
+        magnitude = CDecimalMath.rescale(magnitude, scale, this.maxFractionDigits, RoundingMode.HALF_EVEN);
+        scale = this.maxFractionDigits;
+      }
+    }
+    if (magnitude == INFLATED) {
+      BigDecimal bd = value.getValue().abs();
+      if (bd.scale() > this.maxFractionDigits) {
+        bd = bd.setScale(this.maxFractionDigits, RoundingMode.HALF_EVEN);
+      }
+      digits = bd.unscaledValue().toString();
+      scale = bd.scale();
+    }
+    
+    int digitCount = digits != null ? digits.length() : digitCount(magnitude);
+    int integerDigits = value.isZero() ? 0 : Math.max(digitCount - scale, 0);
+    int fractionDigits = Math.max(scale, 0);
+    while (fractionDigits > this.minFractionDigits
+        && digitAt(magnitude, digits, digitCount, digitCount - scale + fractionDigits - 1) == 0) {
+      fractionDigits--;
+    }
+    fractionDigits = Math.max(fractionDigits, this.minFractionDigits);
+    
+    out.append(negative ? this.negativePrefix : this.positivePrefix);
+    for (int pos = Math.max(integerDigits, this.minIntegerDigits) - 1; pos >= 0; pos--) {
+      out.append((char) (this.zeroDigit + digitAt(magnitude, digits, digitCount, digitCount - scale - 1 - pos)));
+      if (this.groupingSize > 0 && pos > 0 && pos % this.groupingSize == 0) out.append(this.groupingSeparator);
+    }
+    if (fractionDigits > 0 || this.decimalSeparatorAlwaysShown) out.append(this.decimalSeparator);
+    for (int i = 0; i < fractionDigits; i++) {
+      out.append((char) (this.zeroDigit + digitAt(magnitude, digits, digitCount, digitCount - scale + i)));
+    }
+    out.append(negative ? this.negativeSuffix : this.positiveSuffix);
+  }
+  
+  private static int digitCount(long magnitude) {
+    int count = 1;
+    while (count < POW10.length && magnitude >= POW10[count]) count++;
+    return count;
+  }
+  
+  /**
+   * Returns the digit at {@code index}, counted from the most significant digit of the unscaled value; indexes
+   * outside it are the implied leading or trailing zeros.
+   */
+  private static int digitAt(long magnitude, String digits, int digitCount, int index) {
+    if (index < 0 || index >= digitCount) return 0;
+    if (digits != null) return digits.charAt(index) - '0';
+    return (int) (magnitude / POW10[digitCount - 1 - index] % 10);
+  }
+}
@@ -0,0 +1,263 @@
+package com.chris.cutils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.BiConsumer;
+
+import static com.chris.cutils.CDecimalMath.INFLATED;
+import static com.chris.cutils.CDecimalMath.POW10;
+
+/**
+ * An open-addressing hash map keyed by the numeric value of a {@link CDecimal}.
+ * <p>
+ * Keys are compared like {@link CDecimal#equals(Object)}, so {@code 1.0} and {@code 1.00} are the same key. Each key
+ * is stored with its trailing zeros stripped as an unscaled {@code long} and an {@code int} scale in primitive arrays
+ * with linear probing, so lookups by a compact key never allocate. The rare keys whose stripped unscaled value does
+ * not fit in a {@code long} are kept in a side {@link HashMap}.
+ * <p>
+ * Keys handed back by {@link #forEach(BiConsumer)} are in that normalized form ({@code 1.50} comes back as
+ * {@code 1.5}). Keys must not be {@code null}; values may be. This class is not thread-safe.
+ */
+public final class CDecimalMap<V> {
+  
+  private static final long EMPTY = INFLATED;
+  private static final int MIN_CAPACITY = 16;
+  private static final int MAX_CAPACITY = 1 << 30;
+  // value reported for every key of a map without values, see CDecimalSet
+  static final Object PRESENT = new Object();
+  
+  private long[] keys;
+  private int[] scales;
+  private Object[] values;
+  private int mask;
+  private int compactSize;
+  private HashMap<BigDecimal, Object> inflated;
+  private final boolean keysOnly;
+  
+  public CDecimalMap() {
+    this(MIN_CAPACITY / 2);
+  }
+  
+  public CDecimalMap(int expectedSize) {
+    this(expectedSize, false);
+  }
+  
+  CDecimalMap(int expectedSize, boolean keysOnly) {
+    if (expectedSize < 0) throw new IllegalArgumentException("Negative expected size: " + expectedSize);
+    this.keysOnly = keysOnly;
+    allocate(capacityFor(expectedSize));
+  }
+  
+  public int size() {
+    return this.compactSize + (this.inflated == null ? 0 : this.inflated.size());
+  }
+  
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+  
+  public V get(CDecimal key) {
+    if (key.isCompact()) return get(key.compactValue(), key.scale());
+    BigDecimal stripped = key.getValue().stripTrailingZeros();
+    long unscaled = CDecimalMath.compactOf(stripped);
+    if (unscaled != INFLATED) return get(unscaled, stripped.scale());
+    return this.inflated == null ? null : cast(this.inflated.get(stripped));
+  }
+  
+  /**
+   * Looks up the key {@code unscaled × 10^-scale} without creating a {@link CDecimal}.
+   */
+  public V get(long unscaled, int scale) {
+    if (unscaled == INFLATED) return get(CDecimal.valueOf(unscaled, scale));
+    int slot = find(unscaled, scale);
+    return slot < 0 ? null : valueAt(slot);
+  }
+  
+  public V getOrDefault(CDecimal key, V defaultValue) {
+    return containsKey(key) ? get(key) : defaultValue;
+  }
+  
+  public boolean containsKey(CDecimal key) {
+    if (key.isCompact()) return containsKey(key.compactValue(), key.scale());
+    BigDecimal stripped = key.getValue().stripTrailingZeros();
+    long unscaled = CDecimalMath.compactOf(stripped);
+    if (unscaled != INFLATED) return containsKey(unscaled, stripped.scale());
+    return this.inflated != null && this.inflated.containsKey(stripped);
+  }
+  
+  public boolean containsKey(long unscaled, int scale) {
+    if (unscaled == INFLATED) return containsKey(CDecimal.valueOf(unscaled, scale));
+    return find(unscaled, scale) >= 0;
+  }
+  
+  /**
+   * Associates {@code value} with the key, returning the previous value or {@code null} if there was none.
+   */
+  public V put(CDecimal key, V value) {
+    if (key.isCompact()) return put(key.compactValue(), key.scale(), value);
+    BigDecimal stripped = key.getValue().stripTrailingZeros();
+    long unscaled = CDecimalMath.compactOf(stripped);
+    if (unscaled != INFLATED) return put(unscaled, stripped.scale(), value);
+    if (this.inflated == null) this.inflated = new HashMap<>();
+    if (!this.inflated.containsKey(stripped)) {
+      this.inflated.put(stripped, this.keysOnly ? PRESENT : value);
+      return null;
+    }
+    return cast(this.keysOnly ? PRESENT : this.inflated.put(stripped, value));
+  }
+  
+  public V put(long unscaled, int scale, V value) {
+    if (unscaled == INFLATED) return put(CDecimal.valueOf(unscaled, scale), value);
+    if (unscaled == 0) {
+      scale = 0;
+    } else {
+      int zeros = strippableZeros(unscaled, scale);
+      unscaled /= POW10[zeros];
+      scale -= zeros;
+    }
+    int slot = probe(unscaled, scale);
+    if (slot >= 0) {
+      V previous = valueAt(slot);
+      if (!this.keysOnly) this.values[slot] = value;
+      return previous;
+    }
+    if (this.compactSize + 1 > (this.mask + 1) >> 1 && this.mask + 1 < MAX_CAPACITY) {
+      allocate(Math.max(MIN_CAPACITY, (this.mask + 1) << 1));
+      slot = probe(unscaled, scale);
+    } else if (this.compactSize == this.mask) {
+      throw new IllegalStateException("Map is full");
+    }
+    slot = ~slot;
+    this.keys[slot] = unscaled;
+    this.scales[slot] = scale;
+    if (!this.keysOnly) this.values[slot] = value;
+    this.compactSize++;
+    return null;
+  }
+  
+  /**
+   * Removes the key, returning its value or {@code null} if it was not present.
+   */
+  public V remove(CDecimal key) {
+    if (key.isCompact()) return remove(key.compactValue(), key.scale());
+    BigDecimal stripped = key.getValue().stripTrailingZeros();
+    long unscaled = CDecimalMath.compactOf(stripped);
+    if (unscaled != INFLATED) return remove(unscaled, stripped.scale());
+    if (this.inflated == null || !this.inflated.containsKey(stripped)) return null;
+    return cast(this.inflated.remove(stripped));
+  }
+  
+  public V remove(long unscaled, int scale) {
+    if (unscaled == INFLATED) return remove(CDecimal.valueOf(unscaled, scale));
+    int slot = find(unscaled, scale);
+    if (slot < 0) return null;
+    V previous = valueAt(slot);
+    removeAt(slot);
+    return previous;
+  }
+  
+  public void clear() {
+    Arrays.fill(this.keys, EMPTY);
+    if (!this.keysOnly) Arrays.fill(this.values, null);
+    this.compactSize = 0;
+    this.inflated = null;
+  }
+  
+  /**
+   * Passes every entry to {@code action}, in no particular order. Keys are in normalized form.
+   */
+  public void forEach(BiConsumer<? super CDecimal, ? super V> action) {
+    long[] ks = this.keys;
+    for (int slot = 0; slot < ks.length; slot++) {
+      if (ks[slot] != EMPTY) action.accept(CDecimal.valueOf(ks[slot], this.scales[slot]), valueAt(slot));
+    }
+    if (this.inflated != null) this.inflated.forEach((key, value) -> action.accept(new CDecimal(key), cast(value)));
+  }
+  
+  private int find(long unscaled, int scale) {
+    if (unscaled == 0) {
+      scale = 0;
+    } else {
+      int zeros = strippableZeros(unscaled, scale);
+      unscaled /= POW10[zeros];
+      scale -= zeros;
+    }
+    return probe(unscaled, scale);
+  }
+  
+  /**
+   * Returns the slot holding the normalized key, or {@code ~slot} of the empty slot where it would go.
+   */
+  private int probe(long unscaled, int scale) {
+    long[] ks = this.keys;
+    int mask = this.mask;
+    for (int slot = home(unscaled, scale, mask); ; slot = (slot + 1) & mask) {
+      long k = ks[slot];
+      if (k == EMPTY) return ~slot;
+      if (k == unscaled && this.scales[slot] == scale) return slot;
+    }
+  }
+  
+  // backward-shift deletion: pull later entries of the probe run into the hole instead of leaving a tombstone
+  private void removeAt(int slot) {
+    long[] ks = this.keys;
+    int mask = this.mask;
+    int hole = slot;
+    for (int i = (slot + 1) & mask; ks[i] != EMPTY; i = (i + 1) & mask) {
+      int home = home(ks[i], this.scales[i], mask);
+      if (((i - home) & mask) >= ((i - hole) & mask)) {
+        ks[hole] = ks[i];
+        this.scales[hole] = this.scales[i];
+        if (!this.keysOnly) this.values[hole] = this.values[i];
+        hole = i;
+      }
+    }
+    ks[hole] = EMPTY;
+    if (!this.keysOnly) this.values[hole] = null;
+    this.compactSize--;
+  }
+  
+  private void allocate(int capacity) {
+    long[] oldKeys = this.keys;
+    int[] oldScales = this.scales;
+    Object[] oldValues = this.values;
+    this.keys = new long[capacity];
+    this.scales = new int[capacity];
+    this.values = this.keysOnly ? null : new Object[capacity];
+    this.mask = capacity - 1;
+    Arrays.fill(this.keys, EMPTY);
+    if (oldKeys == null) return;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] == EMPTY) continue;
+      int slot = ~probe(oldKeys[i], oldScales[i]);
+      this.keys[slot] = oldKeys[i];
+      this.scales[slot] = oldScales[i];
+      if (!this.keysOnly) this.values[slot] = oldValues[i];
+    }
+  }
+  
+  private V valueAt(int slot) {
+    return cast(this.keysOnly ? PRESENT : this.values[slot]);
+  }
+  
+  @SuppressWarnings("unchecked")
+  private static <V> V cast(Object value) {
+    return (V) value;
+  }
+  
+  private static int capacityFor(int expectedSize) {
+    long capacity = Math.max(MIN_CAPACITY, Long.highestOneBit(Math.max(1L, (long) expectedSize * 2 - 1)) << 1);
+    return (int) Math.min(capacity, MAX_CAPACITY);
+  }
+  
+  private static int home(long unscaled, int scale, int mask) {
+    long h = (unscaled + scale * 0x9E3779B97F4A7C15L) * 0xC2B2AE3D27D4EB4FL;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+  
+  // stop before the scale would underflow, so the normalized form stays a valid int scale
+  private static int strippableZeros(long unscaled, int scale) {
+    return (int) Math.min(CDecimalMath.trailingZeros(unscaled), (long) scale - Integer.MIN_VALUE);
+  }
+}
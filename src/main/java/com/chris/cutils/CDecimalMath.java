@@ -0,0 +1,107 @@
+package com.chris.cutils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Overflow-checked arithmetic on unscaled {@code long} decimal values.
+ * <p>
+ * Every operation returns {@link #INFLATED} instead of a wrong result when the exact answer does not fit in a
+ * {@code long}; callers are expected to fall back to {@link java.math.BigDecimal} in that case. Like
+ * {@code BigDecimal}, {@code Long.MIN_VALUE} itself is never used as a compact value.
+ */
+final class CDecimalMath {
+  
+  static final long INFLATED = Long.MIN_VALUE;
+  
+  static final long[] POW10 = {
+      1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+      10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+      1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+  };
+  
+  private CDecimalMath() {
+  }
+  
+  static long add(long a, long b) {
+    long r = a + b;
+    return ((a ^ r) & (b ^ r)) < 0 ? INFLATED : r;
+  }
+  
+  static long multiply(long a, long b) {
+    long lo = a * b;
+    long hi = Math.multiplyHigh(a, b);
+    return hi == (lo >> 63) ? lo : INFLATED;
+  }
+  
+  /**
+   * Multiplies {@code value} by {@code 10^n}, {@code n >= 0}.
+   */
+  static long scaleUp(long value, long n) {
+    if (value == 0) return 0;
+    if (n >= POW10.length) return INFLATED;
+    return multiply(value, POW10[(int) n]);
+  }
+  
+  /**
+   * Changes the scale of an unscaled value, rounding with {@code mode} when digits are dropped.
+   */
+  static long rescale(long value, int fromScale, int toScale, RoundingMode mode) {
+    long diff = (long) toScale - fromScale;
+    if (diff >= 0) return scaleUp(value, diff);
+    if (-diff >= POW10.length) return INFLATED;
+    return divide(value, POW10[(int) -diff], mode);
+  }
+  
+  /**
+   * Divides {@code dividend} by {@code divisor}, rounding the quotient with {@code mode}.
+   *
+   * @throws ArithmeticException if {@code divisor} is zero, or rounding is needed with {@link RoundingMode#UNNECESSARY}.
+   */
+  static long divide(long dividend, long divisor, RoundingMode mode) {
+    if (divisor < 0) {
+      dividend = -dividend;
+      divisor = -divisor;
+    }
+    long q = dividend / divisor;
+    long r = dividend - q * divisor;
+    if (r == 0) return q;
+    int sign = dividend < 0 ? -1 : 1;
+    long absR = Math.abs(r);
+    int half = Long.compare(absR, divisor - absR);
+    boolean increment = switch (mode) {
+      case UP -> true;
+      case DOWN -> false;
+      case CEILING -> sign > 0;
+      case FLOOR -> sign < 0;
+      case HALF_UP -> half >= 0;
+      case HALF_DOWN -> half > 0;
+      case HALF_EVEN -> half > 0 || (half == 0 && (q & 1) != 0);
+      case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+    };
+    return increment ? q + sign : q;
+  }
+  
+  /**
+   * Returns the number of trailing decimal zeros of a non-zero value; zero has none.
+   */
+  static int trailingZeros(long value) {
+    if (value == 0) return 0;
+    int count = 0;
+    while (value % 10 == 0) {
+      value /= 10;
+      count++;
+    }
+    return count;
+  }
+  
+  /**
+   * Returns the unscaled value of {@code value}, or {@link #INFLATED} if it does not fit in a {@code long}.
+   */
+  static long compactOf(BigDecimal value) {
+    if (value.precision() > 19) return INFLATED;
+    BigInteger unscaled = value.unscaledValue();
+    return unscaled.bitLength() < 64 ? unscaled.longValue() : INFLATED;
+  }
+}
@@ -0,0 +1,186 @@
+package com.chris.cutils;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+import static com.chris.cutils.CDecimalMath.INFLATED;
+
+/**
+ * Single-pass decimal parser that never throws on malformed input.
+ * <p>
+ * Accepts the same syntax as {@link BigDecimal#BigDecimal(String)}: an optional sign, digits with an optional
+ * decimal point, and an optional exponent. Text can be read from a {@link CharSequence}, or straight from a
+ * {@code byte[]} or {@link ByteBuffer} slice holding ASCII / Latin-1 / UTF-8 digits, without creating a
+ * {@code String}. Values whose unscaled value fits in a {@code long} are built without touching {@code BigDecimal}.
+ * <p>
+ * The static {@code parse} methods return a default value on failure. An instance can be reused to parse many
+ * fields: {@code tryParse} reports success as a {@code boolean} and leaves the parsed unscaled value and scale in
+ * the parser, so callers that only need the primitives never allocate. Instances are not thread-safe.
+ */
+public final class CDecimalParser {
+  
+  private static final int CHARS = 0;
+  private static final int BYTES = 1;
+  private static final int BUFFER = 2;
+  
+  private static final long MAX_DIV_10 = Long.MAX_VALUE / 10;
+  private static final int MAX_EXPONENT_DIGITS = 10;
+  
+  private long unscaled;
+  private int scale;
+  private BigDecimal inflated;
+  
+  public static CDecimal parse(CharSequence text, CDecimal defaultValue) {
+    return text == null ? defaultValue : parse(text, 0, text.length(), defaultValue);
+  }
+  
+  public static CDecimal parse(CharSequence text, int offset, int length, CDecimal defaultValue) {
+    CDecimalParser parser = new CDecimalParser();
+    return parser.tryParse(text, offset, length) ? parser.toCDecimal() : defaultValue;
+  }
+  
+  public static CDecimal parse(byte[] bytes, int offset, int length, CDecimal defaultValue) {
+    CDecimalParser parser = new CDecimalParser();
+    return parser.tryParse(bytes, offset, length) ? parser.toCDecimal() : defaultValue;
+  }
+  
+  public static CDecimal parse(ByteBuffer buffer, int offset, int length, CDecimal defaultValue) {
+    CDecimalParser parser = new CDecimalParser();
+    return parser.tryParse(buffer, offset, length) ? parser.toCDecimal() : defaultValue;
+  }
+  
+  public boolean tryParse(CharSequence text) {
+    return text != null && tryParse(text, 0, text.length());
+  }
+  
+  public boolean tryParse(CharSequence text, int offset, int length) {
+    return text != null && parse(text, CHARS, offset, length);
+  }
+  
+  public boolean tryParse(byte[] bytes, int offset, int length) {
+    return bytes != null && parse(bytes, BYTES, offset, length);
+  }
+  
+  /**
+   * Parses {@code length} bytes starting at the absolute index {@code offset}; the buffer position is not changed.
+   */
+  public boolean tryParse(ByteBuffer buffer, int offset, int length) {
+    if (buffer == null) return false;
+    if (buffer.hasArray()) return parse(buffer.array(), BYTES, buffer.arrayOffset() + offset, length);
+    return parse(buffer, BUFFER, offset, length);
+  }
+  
+  /**
+   * Returns whether the last successfully parsed value fits in a {@code long} unscaled value.
+   */
+  public boolean isCompact() {
+    return this.inflated == null;
+  }
+  
+  /**
+   * Returns the unscaled value of the last successful parse, or {@code Long.MIN_VALUE} if it is not
+   * {@link #isCompact() compact}.
+   */
+  public long unscaledValue() {
+    return this.unscaled;
+  }
+  
+  public int scale() {
+    return this.scale;
+  }
+  
+  public CDecimal toCDecimal() {
+    return this.inflated == null ? CDecimal.valueOf(this.unscaled, this.scale) : new CDecimal(this.inflated);
+  }
+  
+  private boolean parse(Object source, int kind, int offset, int length) {
+    int end = offset + length;
+    if (length <= 0) return false;
+    
+    int i = offset;
+    int c = charAt(source, kind, i);
+    boolean negative = c == '-';
+    if (negative || c == '+') i++;
+    
+    long value = 0;
+    boolean overflow = false;
+    int digits = 0;
+    int fractionDigits = 0;
+    boolean point = false;
+    for (; i < end; i++) {
+      c = charAt(source, kind, i);
+      int digit = digit(c);
+      if (digit >= 0) {
+        if (!overflow) {
+          if (value > MAX_DIV_10 || (value == MAX_DIV_10 && digit > 7)) {
+            overflow = true;
+          } else {
+            value = value * 10 + digit;
+          }
+        }
+        digits++;
+        if (point) fractionDigits++;
+      } else if (c == '.' && !point) {
+        point = true;
+      } else {
+        break;
+      }
+    }
+    if (digits == 0) return false;
+    
+    long exponent = 0;
+    if (i < end) {
+      if (c != 'e' && c != 'E') return false;
+      if (++i == end) return false;
+      c = charAt(source, kind, i);
+      boolean negativeExponent = c == '-';
+      if (negativeExponent || c == '+') i++;
+      if (i == end) return false;
+      int exponentDigits = 0;
+      for (; i < end; i++) {
+        int digit = digit(charAt(source, kind, i));
+        if (digit < 0) return false;
+        if (exponent != 0 || digit != 0) {
+          if (++exponentDigits > MAX_EXPONENT_DIGITS) return false;
+          exponent = exponent * 10 + digit;
+        }
+      }
+      if (negativeExponent) exponent = -exponent;
+    }
+    
+    long newScale = fractionDigits - exponent;
+    if (newScale != (int) newScale) return false;
+    
+    this.scale = (int) newScale;
+    if (overflow) {
+      this.unscaled = INFLATED;
+      this.inflated = new BigDecimal(toChars(source, kind, offset, length));
+    } else {
+      this.unscaled = negative ? -value : value;
+      this.inflated = null;
+    }
+    return true;
+  }
+  
+  private static int charAt(Object source, int kind, int index) {
+    return switch (kind) {
+      case BYTES -> ((byte[]) source)[index] & 0xFF;
+      case BUFFER -> ((ByteBuffer) source).get(index) & 0xFF;
+      default -> ((CharSequence) source).charAt(index);
+    };
+  }
+  
+  private static int digit(int c) {
+    if (c < 128) return c >= '0' && c <= '9' ? c - '0' : -1;
+    // BigDecimal(String) accepts any Unicode decimal digit; Latin-1 has none above 127
+    return Character.digit(c, 10);
+  }
+  
+  private static char[] toChars(Object source, int kind, int offset, int length) {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) charAt(source, kind, offset + i);
+    }
+    return chars;
+  }
+}
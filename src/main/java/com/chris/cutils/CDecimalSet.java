@@ -0,0 +1,68 @@
+package com.chris.cutils;
+
+import java.util.function.Consumer;
+
+/**
+ * An open-addressing hash set of {@link CDecimal} values, compared by numeric value like
+ * {@link CDecimal#equals(Object)}. Backed by a {@link CDecimalMap} without a value array, see there for the storage
+ * layout. Elements handed back by {@link #forEach(Consumer)} have their trailing zeros stripped. This class is not
+ * thread-safe.
+ */
+public final class CDecimalSet {
+  
+  private final CDecimalMap<Object> map;
+  
+  public CDecimalSet() {
+    this(8);
+  }
+  
+  public CDecimalSet(int expectedSize) {
+    this.map = new CDecimalMap<>(expectedSize, true);
+  }
+  
+  public int size() {
+    return this.map.size();
+  }
+  
+  public boolean isEmpty() {
+    return this.map.isEmpty();
+  }
+  
+  /**
+   * Adds the value, returning {@code true} if it was not already present.
+   */
+  public boolean add(CDecimal value) {
+    return this.map.put(value, null) == null;
+  }
+  
+  public boolean add(long unscaled, int scale) {
+    return this.map.put(unscaled, scale, null) == null;
+  }
+  
+  public boolean contains(CDecimal value) {
+    return this.map.containsKey(value);
+  }
+  
+  public boolean contains(long unscaled, int scale) {
+    return this.map.containsKey(unscaled, scale);
+  }
+  
+  /**
+   * Removes the value, returning {@code true} if it was present.
+   */
+  public boolean remove(CDecimal value) {
+    return this.map.remove(value) != null;
+  }
+  
+  public boolean remove(long unscaled, int scale) {
+    return this.map.remove(unscaled, scale) != null;
+  }
+  
+  public void clear() {
+    this.map.clear();
+  }
+  
+  public void forEach(Consumer<? super CDecimal> action) {
+    this.map.forEach((value, present) -> action.accept(value));
+  }
+}
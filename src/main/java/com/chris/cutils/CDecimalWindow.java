@@ -0,0 +1,127 @@
+package com.chris.cutils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static com.chris.cutils.CDecimalMath.INFLATED;
+
+/**
+ * A sliding-window count, sum and average of {@link CDecimal} amounts stamped with a {@link CDate}, such as the
+ * amounts of the last five minutes, in fixed memory.
+ * <p>
+ * Amounts are pre-aggregated into sub-buckets of a given granularity, kept as unscaled {@code long}s at a fixed scale;
+ * an amount with more decimals than that scale, or a sum leaving the {@code long} range, throws
+ * {@link ArithmeticException}. Expiry follows the record timestamps, or the supplied {@link CClock} if there is one.
+ * Reads never block: {@link #singleWriter} windows take no lock at all when one thread records, the others
+ * synchronize writers.
+ */
+public final class CDecimalWindow {
+  
+  private final CWindowRing ring;
+  private final int scale;
+  
+  private CDecimalWindow(CWindowRing ring, int scale) {
+    this.ring = ring;
+    this.scale = scale;
+  }
+  
+  public static CDecimalWindow of(CDuration window, CDuration granularity, int scale) {
+    return of(window, granularity, scale, null);
+  }
+  
+  public static CDecimalWindow of(CDuration window, CDuration granularity, int scale, CClock clock) {
+    return new CDecimalWindow(new CWindowRing(window, granularity, false, clock), scale);
+  }
+  
+  /**
+   * Returns a window that only one thread at a time may record into, while any number of threads read it.
+   */
+  public static CDecimalWindow singleWriter(CDuration window, CDuration granularity, int scale) {
+    return singleWriter(window, granularity, scale, null);
+  }
+  
+  public static CDecimalWindow singleWriter(CDuration window, CDuration granularity, int scale, CClock clock) {
+    return new CDecimalWindow(new CWindowRing(window, granularity, true, clock), scale);
+  }
+  
+  public int scale() {
+    return scale;
+  }
+  
+  public CDuration getWindow() {
+    return CDuration.ofMillis(ring.getWindowMillis());
+  }
+  
+  public CDuration getGranularity() {
+    return CDuration.ofMillis(ring.getGranularityMillis());
+  }
+  
+  /**
+   * Records an amount at the time of the supplied clock.
+   *
+   * @throws IllegalStateException if the window has no clock.
+   */
+  public boolean record(CDecimal value) {
+    return record(ring.clockTime(), value);
+  }
+  
+  public boolean record(CDate date, CDecimal value) {
+    return record(date.getTime(), value);
+  }
+  
+  /**
+   * Records an amount at the given epoch millis; returns false, dropping it, if that time has already left the window.
+   */
+  public boolean record(long time, CDecimal value) {
+    return ring.record(time, unscaled(value));
+  }
+  
+  /**
+   * Returns the number of amounts in the window ending now: at the clock's time, or without a clock at the latest
+   * record.
+   */
+  public long count() {
+    return ring.read()[0];
+  }
+  
+  public long count(CDate now) {
+    return ring.read(now.getTime())[0];
+  }
+  
+  public CDecimal sum() {
+    return CDecimal.valueOf(ring.read()[1], scale);
+  }
+  
+  public CDecimal sum(CDate now) {
+    return CDecimal.valueOf(ring.read(now.getTime())[1], scale);
+  }
+  
+  /**
+   * Returns the mean amount at the window's scale, rounded half-even, or {@link CDecimal#ZERO} if the window is empty.
+   */
+  public CDecimal average() {
+    return average(ring.read());
+  }
+  
+  public CDecimal average(CDate now) {
+    return average(ring.read(now.getTime()));
+  }
+  
+  private CDecimal average(long[] totals) {
+    if (totals[0] == 0) return CDecimal.ZERO;
+    return CDecimal.valueOf(totals[1], scale).divide(CDecimal.valueOf(totals[0]), RoundingMode.HALF_EVEN);
+  }
+  
+  private long unscaled(CDecimal value) {
+    long unscaled = INFLATED;
+    if (value.isCompact()) {
+      unscaled = CDecimalMath.rescale(value.compactValue(), value.scale(), scale, RoundingMode.UNNECESSARY);
+    }
+    if (unscaled == INFLATED) {
+      BigDecimal exact = value.getValue().setScale(scale, RoundingMode.UNNECESSARY);
+      unscaled = CDecimalMath.compactOf(exact);
+      if (unscaled == INFLATED) throw new ArithmeticException("Amount out of range: " + value);
+    }
+    return unscaled;
+  }
+}
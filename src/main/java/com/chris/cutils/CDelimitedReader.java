@@ -0,0 +1,420 @@
+package com.chris.cutils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static com.chris.cutils.CDecimalMath.INFLATED;
+
+/**
+ * Reads date and decimal columns of a delimited text file straight into primitive columns.
+ * <p>
+ * The file is memory-mapped one window at a time ({@link #DEFAULT_WINDOW_SIZE} by default); each window ends at a
+ * record boundary and is split into chunks at record boundaries. A first parallel pass counts the records of each
+ * chunk, a second one parses the chunks on the common fork-join pool into preallocated arrays: epoch millis for
+ * {@link Column#date date} columns, unscaled values for {@link Column#decimal decimal} columns. No {@code String},
+ * {@link CDate} or {@link CDecimal} is created per field. Every window becomes one {@link Batch}, so
+ * {@link #forEachBatch(Path, Consumer)} reads files larger than memory with memory bounded by the window size.
+ * <p>
+ * The format is deliberately simple: records end with {@code \n} or {@code \r\n}, empty lines are skipped, fields are
+ * separated by a single-byte delimiter and are not trimmed, and quoting is not supported. Text must be ASCII-compatible
+ * (ISO-8859-1 or UTF-8). Fields that are missing or do not parse are flagged in {@link Batch#isInvalid(int, int)}.
+ */
+public final class CDelimitedReader {
+  
+  public static final long DEFAULT_WINDOW_SIZE = 256L << 20;
+  
+  private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+  private static final int MIN_CHUNK_SIZE = 1 << 20;
+  
+  private final byte delimiter;
+  private final boolean header;
+  private final Column[] columns;
+  private final long windowSize;
+  
+  /**
+   * @param delimiter the field delimiter, an ASCII character.
+   * @param header    whether the first line of the file is a header to skip.
+   * @param columns   the layout of the leading fields of each record; later fields are ignored.
+   */
+  public CDelimitedReader(char delimiter, boolean header, Column... columns) {
+    this(delimiter, header, columns.clone(), DEFAULT_WINDOW_SIZE);
+  }
+  
+  private CDelimitedReader(char delimiter, boolean header, Column[] columns, long windowSize) {
+    if (delimiter >= 0x80 || delimiter == '\n' || delimiter == '\r') {
+      throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+    }
+    this.delimiter = (byte) delimiter;
+    this.header = header;
+    this.columns = columns;
+    this.windowSize = windowSize;
+  }
+  
+  /**
+   * Returns a reader mapping at most {@code bytes} of the file at a time; no record may be longer than that.
+   */
+  public CDelimitedReader withWindowSize(long bytes) {
+    if (bytes <= 0 || bytes > MAX_WINDOW_SIZE) throw new IllegalArgumentException("Invalid window size: " + bytes);
+    return new CDelimitedReader((char) this.delimiter, this.header, this.columns, bytes);
+  }
+  
+  /**
+   * Reads the whole file as a single batch.
+   *
+   * @throws IllegalArgumentException if the file is too large to map at once; use
+   *                                  {@link #forEachBatch(Path, Consumer)} instead.
+   */
+  public Batch read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > MAX_WINDOW_SIZE) throw new IllegalArgumentException("File too large for a single batch: " + size);
+      Batch[] result = new Batch[1];
+      read(channel, Math.max(size, 1), batch -> result[0] = batch);
+      return result[0] != null ? result[0] : emptyBatch();
+    }
+  }
+  
+  /**
+   * Reads the file one window at a time, passing each window's batch to {@code consumer} in file order.
+   *
+   * @return the number of records read.
+   */
+  public long forEachBatch(Path file, Consumer<? super Batch> consumer) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return read(channel, this.windowSize, consumer);
+    }
+  }
+  
+  private long read(FileChannel channel, long window, Consumer<? super Batch> consumer) throws IOException {
+    long size = channel.size();
+    long position = 0;
+    long rows = 0;
+    boolean skipHeader = this.header;
+    while (position < size) {
+      long length = Math.min(window, size - position);
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+      int end = (int) length;
+      if (position + length < size) {
+        end = lastIndexOf(buffer, (byte) '\n', end) + 1;
+        if (end == 0) throw new IOException("Record at byte " + position + " is longer than the window size");
+      }
+      int start = 0;
+      if (skipHeader) {
+        int newline = indexOf(buffer, (byte) '\n', 0, end);
+        // without a newline the whole window is the header
+        start = newline < 0 ? end : newline + 1;
+        skipHeader = false;
+      }
+      Batch batch = parse(buffer, start, end, rows);
+      consumer.accept(batch);
+      rows += batch.rows;
+      position += end;
+    }
+    return rows;
+  }
+  
+  private Batch parse(MappedByteBuffer buffer, int start, int end, long firstRow) {
+    int parallelism = ForkJoinPool.getCommonPoolParallelism();
+    int chunkSize = Math.max(MIN_CHUNK_SIZE, (end - start) / (parallelism * 4) + 1);
+    int[] bounds = new int[(end - start) / chunkSize + 2];
+    bounds[0] = start;
+    int chunks = 0;
+    for (int from = start; from < end; from = bounds[++chunks]) {
+      int to = (int) Math.min((long) from + chunkSize, end);
+      if (to < end) {
+        int newline = indexOf(buffer, (byte) '\n', to - 1, end);
+        to = newline < 0 ? end : newline + 1;
+      }
+      bounds[chunks + 1] = to;
+    }
+    
+    int[] rowStarts = new int[chunks + 1];
+    int[] counts = new int[chunks];
+    IntStream.range(0, chunks).parallel().forEach(c -> counts[c] = countRecords(buffer, bounds[c], bounds[c + 1]));
+    for (int c = 0; c < chunks; c++) {
+      rowStarts[c + 1] = Math.addExact(rowStarts[c], counts[c]);
+    }
+    int rows = rowStarts[chunks];
+    
+    Object[] data = new Object[this.columns.length];
+    for (int k = 0; k < this.columns.length; k++) {
+      int kind = this.columns[k].kind;
+      if (kind != Column.SKIP) data[k] = new long[rows];
+    }
+    ChunkParser[] parsers = new ChunkParser[chunks];
+    IntStream.range(0, chunks).parallel().forEach(c -> {
+      ChunkParser parser = new ChunkParser(buffer, data);
+      parser.parse(bounds[c], bounds[c + 1], rowStarts[c]);
+      parsers[c] = parser;
+    });
+    
+    BitSet[] invalid = new BitSet[this.columns.length];
+    BigDecimal[][] overflow = new BigDecimal[this.columns.length][];
+    for (int k = 0; k < this.columns.length; k++) {
+      invalid[k] = new BitSet(rows);
+    }
+    for (ChunkParser parser : parsers) {
+      for (int k = 0; k < this.columns.length; k++) {
+        for (int i = 0; i < parser.invalidCounts[k]; i++) {
+          invalid[k].set(parser.invalidRows[k][i]);
+        }
+      }
+      for (int i = 0; i < parser.overflowRows.size(); i++) {
+        int k = parser.overflowColumns.get(i);
+        if (overflow[k] == null) overflow[k] = new BigDecimal[rows];
+        overflow[k][parser.overflowRows.get(i)] = parser.overflowValues.get(i);
+      }
+    }
+    for (int k = 0; k < this.columns.length; k++) {
+      if (this.columns[k].kind == Column.DECIMAL) {
+        data[k] = CDecimalArray.wrap((long[]) data[k], overflow[k], this.columns[k].scale);
+      }
+    }
+    return new Batch(firstRow, rows, data, invalid);
+  }
+  
+  private Batch emptyBatch() {
+    Object[] data = new Object[this.columns.length];
+    BitSet[] invalid = new BitSet[this.columns.length];
+    for (int k = 0; k < this.columns.length; k++) {
+      if (this.columns[k].kind == Column.DATE) data[k] = new long[0];
+      if (this.columns[k].kind == Column.DECIMAL) {
+        data[k] = CDecimalArray.ofUnscaled(new long[0], this.columns[k].scale);
+      }
+      invalid[k] = new BitSet();
+    }
+    return new Batch(0, 0, data, invalid);
+  }
+  
+  // non-empty lines in [from, to)
+  private static int countRecords(MappedByteBuffer buffer, int from, int to) {
+    int count = 0;
+    int lineStart = from;
+    for (int i = from; i < to; i++) {
+      if (buffer.get(i) == '\n') {
+        if (contentEnd(buffer, lineStart, i) > lineStart) count++;
+        lineStart = i + 1;
+      }
+    }
+    if (contentEnd(buffer, lineStart, to) > lineStart) count++;
+    return count;
+  }
+  
+  private static int contentEnd(MappedByteBuffer buffer, int lineStart, int lineEnd) {
+    return lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+  }
+  
+  private static int indexOf(MappedByteBuffer buffer, byte b, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (buffer.get(i) == b) return i;
+    }
+    return -1;
+  }
+  
+  private static int lastIndexOf(MappedByteBuffer buffer, byte b, int to) {
+    for (int i = to - 1; i >= 0; i--) {
+      if (buffer.get(i) == b) return i;
+    }
+    return -1;
+  }
+  
+  /**
+   * Parses the records of one chunk; its rows are disjoint from every other chunk's, so the shared column arrays are
+   * written without synchronization. Invalid rows and overflowing decimals are collected locally and merged after.
+   */
+  private final class ChunkParser {
+    
+    private final MappedByteBuffer buffer;
+    private final Object[] data;
+    private final CDecimalParser decimalParser = new CDecimalParser();
+    private byte[] scratch = new byte[64];
+    private final int[][] invalidRows = new int[columns.length][];
+    private final int[] invalidCounts = new int[columns.length];
+    private final List<Integer> overflowRows = new ArrayList<>();
+    private final List<Integer> overflowColumns = new ArrayList<>();
+    private final List<BigDecimal> overflowValues = new ArrayList<>();
+    
+    ChunkParser(MappedByteBuffer buffer, Object[] data) {
+      this.buffer = buffer;
+      this.data = data;
+    }
+    
+    void parse(int from, int to, int row) {
+      int lineStart = from;
+      while (lineStart < to) {
+        int lineEnd = indexOf(this.buffer, (byte) '\n', lineStart, to);
+        if (lineEnd < 0) lineEnd = to;
+        int end = contentEnd(this.buffer, lineStart, lineEnd);
+        if (end > lineStart) parseRecord(lineStart, end, row++);
+        lineStart = lineEnd + 1;
+      }
+    }
+    
+    private void parseRecord(int start, int end, int row) {
+      int fieldStart = start;
+      boolean present = true;
+      for (int k = 0; k < columns.length; k++) {
+        int fieldEnd = present ? indexOf(this.buffer, delimiter, fieldStart, end) : -1;
+        if (fieldEnd < 0) fieldEnd = end;
+        Column column = columns[k];
+        if (column.kind != Column.SKIP) {
+          if (present) {
+            parseField(column, k, fieldStart, fieldEnd - fieldStart, row);
+          } else {
+            invalid(k, row);
+          }
+        }
+        present = present && fieldEnd < end;
+        fieldStart = fieldEnd + 1;
+      }
+    }
+    
+    private void parseField(Column column, int k, int offset, int length, int row) {
+      if (length > this.scratch.length) this.scratch = new byte[Math.max(length, this.scratch.length * 2)];
+      this.buffer.get(offset, this.scratch, 0, length);
+      long[] values = (long[]) this.data[k];
+      if (column.kind == Column.DATE) {
+        long time = CDateParser.parse(column.layout, this.scratch, 0, length);
+        values[row] = time;
+        if (time == CDateParser.INVALID) invalid(k, row);
+        return;
+      }
+      CDecimalParser parser = this.decimalParser;
+      if (!parser.tryParse(this.scratch, 0, length)) {
+        invalid(k, row);
+        return;
+      }
+      long unscaled = parser.isCompact()
+          ? CDecimalMath.rescale(parser.unscaledValue(), parser.scale(), column.scale, RoundingMode.HALF_EVEN)
+          : INFLATED;
+      if (unscaled == INFLATED) {
+        BigDecimal value = parser.toCDecimal().getValue().setScale(column.scale, RoundingMode.HALF_EVEN);
+        unscaled = CDecimalMath.compactOf(value);
+        if (unscaled == INFLATED) {
+          this.overflowRows.add(row);
+          this.overflowColumns.add(k);
+          this.overflowValues.add(value);
+        }
+      }
+      values[row] = unscaled;
+    }
+    
+    private void invalid(int k, int row) {
+      if (columns[k].kind == Column.DATE) ((long[]) this.data[k])[row] = CDateParser.INVALID;
+      int[] rows = this.invalidRows[k];
+      if (rows == null) {
+        rows = new int[8];
+      } else if (this.invalidCounts[k] == rows.length) {
+        rows = Arrays.copyOf(rows, rows.length * 2);
+      }
+      this.invalidRows[k] = rows;
+      rows[this.invalidCounts[k]++] = row;
+    }
+  }
+  
+  /**
+   * How one field of each record is read.
+   */
+  public static final class Column {
+    
+    private static final int SKIP = 0;
+    private static final int DATE = 1;
+    private static final int DECIMAL = 2;
+    
+    private static final Column SKIPPED = new Column(SKIP, null, 0);
+    
+    private final int kind;
+    private final CDateParser.Layout layout;
+    private final int scale;
+    
+    private Column(int kind, CDateParser.Layout layout, int scale) {
+      this.kind = kind;
+      this.layout = layout;
+      this.scale = scale;
+    }
+    
+    public static Column skip() {
+      return SKIPPED;
+    }
+    
+    /**
+     * A date column in the given layout, read into epoch millis; invalid fields hold {@link CDateParser#INVALID}.
+     */
+    public static Column date(CDateParser.Layout layout) {
+      return new Column(DATE, layout, 0);
+    }
+    
+    /**
+     * A decimal column, read at the given scale (rounding half-even); invalid fields hold zero.
+     */
+    public static Column decimal(int scale) {
+      return new Column(DECIMAL, null, scale);
+    }
+  }
+  
+  /**
+   * The columns parsed from one window of the file.
+   */
+  public static final class Batch {
+    
+    private final long firstRow;
+    private final int rows;
+    private final Object[] data;
+    private final BitSet[] invalid;
+    
+    private Batch(long firstRow, int rows, Object[] data, BitSet[] invalid) {
+      this.firstRow = firstRow;
+      this.rows = rows;
+      this.data = data;
+      this.invalid = invalid;
+    }
+    
+    /**
+     * Returns the index of this batch's first record among all records of the file.
+     */
+    public long firstRow() {
+      return firstRow;
+    }
+    
+    public int rows() {
+      return rows;
+    }
+    
+    /**
+     * Returns the epoch millis of a {@link Column#date date} column. The array is not copied.
+     */
+    public long[] dates(int column) {
+      if (!(this.data[column] instanceof long[] dates)) {
+        throw new IllegalArgumentException("Not a date column: " + column);
+      }
+      return dates;
+    }
+    
+    public CDecimalArray decimals(int column) {
+      if (!(this.data[column] instanceof CDecimalArray decimals)) {
+        throw new IllegalArgumentException("Not a decimal column: " + column);
+      }
+      return decimals;
+    }
+    
+    public boolean isInvalid(int column, int row) {
+      return this.invalid[column].get(row);
+    }
+    
+    public int invalidCount(int column) {
+      return this.invalid[column].cardinality();
+    }
+  }
+}
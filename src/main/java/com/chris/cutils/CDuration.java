@@ -2,92 +2,223 @@ package com.chris.cutils;
 
 import java.time.Duration;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 
+/**
+ * A duration held as a single {@code long} of nanoseconds, which covers about 292 years either way. Longer durations,
+ * such as those of long {@link CPeriod}s, fall back to a {@link Duration}; for those {@link #toNanos()} throws
+ * {@link ArithmeticException}, as does anything built on it, such as {@link CDurationStatistics}.
+ * <p>
+ * Small whole numbers of seconds, minutes, hours and days are cached. To aggregate many durations without creating
+ * one per step, use {@link CDurationStatistics} or the {@code long} nanos directly.
+ */
 public class CDuration implements Comparable<CDuration> {
   
-  public static final CDuration ZERO = new CDuration(Duration.ZERO);
+  static final long NANOS_PER_MILLI = 1_000_000L;
+  static final long NANOS_PER_SECOND = 1_000_000_000L;
+  static final long NANOS_PER_MINUTE = 60 * NANOS_PER_SECOND;
+  static final long NANOS_PER_HOUR = 60 * NANOS_PER_MINUTE;
+  static final long NANOS_PER_DAY = 24 * NANOS_PER_HOUR;
+  
+  private static final CDuration[] SECONDS = cache(60, NANOS_PER_SECOND);
+  private static final CDuration[] MINUTES = cache(60, NANOS_PER_MINUTE);
+  private static final CDuration[] HOURS = cache(24, NANOS_PER_HOUR);
+  private static final CDuration[] DAYS = cache(31, NANOS_PER_DAY);
+  
+  public static final CDuration ZERO = SECONDS[0];
   public static final CDuration ONE_SECOND = ofSeconds(1);
   public static final CDuration ONE_MINUTE = ofMinutes(1);
   public static final CDuration ONE_HOUR = ofHours(1);
   public static final CDuration ONE_DAY = ofDays(1);
   
-  private final Duration value;
+  private final long nanos;
+  // set only when the duration does not fit in nanos, which is then 0
+  private final Duration wide;
   
   public CDuration(Duration value) {
-    this.value = value;
+    long nanos = 0;
+    Duration wide = null;
+    try {
+      nanos = value.toNanos();
+    } catch (ArithmeticException e) {
+      wide = value;
+    }
+    this.nanos = nanos;
+    this.wide = wide;
   }
   
+  /**
+   * Creates the duration between the start and end of the period, computed from their epoch millis.
+   */
   public CDuration(CPeriod period) {
-    this.value = Duration.between(period.getStart().toLocalDateTime(), period.getEnd().toLocalDateTime());
+    long millis = period.getEnd().getTime() - period.getStart().getTime();
+    if (fitsNanos(millis, NANOS_PER_MILLI)) {
+      this.nanos = millis * NANOS_PER_MILLI;
+      this.wide = null;
+    } else {
+      this.nanos = 0;
+      this.wide = Duration.ofMillis(millis);
+    }
+  }
+  
+  private CDuration(long nanos) {
+    this.nanos = nanos;
+    this.wide = null;
+  }
+  
+  private static boolean fitsNanos(long amount, long unitNanos) {
+    return amount >= Long.MIN_VALUE / unitNanos && amount <= Long.MAX_VALUE / unitNanos;
+  }
+  
+  private static CDuration of(Duration value) {
+    return value.isZero() ? ZERO : new CDuration(value);
   }
   
+  private static CDuration[] cache(int size, long unitNanos) {
+    CDuration[] cache = new CDuration[size + 1];
+    for (int i = 0; i <= size; i++) {
+      cache[i] = new CDuration(i * unitNanos);
+    }
+    return cache;
+  }
+  
+  public static CDuration ofNanos(long nanos) {
+    if (nanos == 0) return ZERO;
+    return new CDuration(nanos);
+  }
+  
+  public static CDuration ofMillis(long millis) {
+    if (fitsNanos(millis, NANOS_PER_MILLI)) return ofNanos(millis * NANOS_PER_MILLI);
+    return new CDuration(Duration.ofMillis(millis));
+  }
+  
+  /**
+   * @throws ArithmeticException if the duration does not fit in a {@link Duration}.
+   */
   public static CDuration ofSeconds(long seconds) {
-    return new CDuration(Duration.ofSeconds(seconds));
+    return of(seconds, ChronoUnit.SECONDS, NANOS_PER_SECOND, SECONDS);
   }
   
+  /**
+   * @throws ArithmeticException if the duration does not fit in a {@link Duration}.
+   */
   public static CDuration ofMinutes(long minutes) {
-    return new CDuration(Duration.ofMinutes(minutes));
+    return of(minutes, ChronoUnit.MINUTES, NANOS_PER_MINUTE, MINUTES);
   }
   
+  /**
+   * @throws ArithmeticException if the duration does not fit in a {@link Duration}.
+   */
   public static CDuration ofHours(long hours) {
-    return new CDuration(Duration.ofHours(hours));
+    return of(hours, ChronoUnit.HOURS, NANOS_PER_HOUR, HOURS);
   }
   
+  /**
+   * @throws ArithmeticException if the duration does not fit in a {@link Duration}.
+   */
   public static CDuration ofDays(long days) {
-    return new CDuration(Duration.ofDays(days));
+    return of(days, ChronoUnit.DAYS, NANOS_PER_DAY, DAYS);
+  }
+  
+  private static CDuration of(long amount, ChronoUnit unit, long unitNanos, CDuration[] cache) {
+    if (amount >= 0 && amount < cache.length) return cache[(int) amount];
+    if (fitsNanos(amount, unitNanos)) return new CDuration(amount * unitNanos);
+    return new CDuration(Duration.of(amount, unit));
+  }
+  
+  boolean isCompact() {
+    return this.wide == null;
+  }
+  
+  /**
+   * @throws ArithmeticException if the duration does not fit in a {@code long} of nanoseconds.
+   */
+  public long toNanos() {
+    return wide != null ? wide.toNanos() : nanos;
+  }
+  
+  // like Duration: millis truncate toward zero, seconds round down, and minutes, hours and days truncate the seconds
+  public long toMicros() {
+    return wide != null ? wide.dividedBy(ChronoUnit.MICROS.getDuration()) : nanos / 1000;
+  }
+  
+  public long toMillis() {
+    return wide != null ? wide.toMillis() : nanos / NANOS_PER_MILLI;
   }
   
   public long toSeconds() {
-    return value.getSeconds();
+    return wide != null ? wide.getSeconds() : Math.floorDiv(nanos, NANOS_PER_SECOND);
   }
   
   public long toMinutes() {
-    return value.toMinutes();
+    return toSeconds() / 60;
   }
   
   public long toHours() {
-    return value.toHours();
+    return toSeconds() / 3600;
   }
   
   public long toDays() {
-    return value.toDays();
-  }
-  
-  public long toMillis() {
-    return value.toMillis();
+    return toSeconds() / 86400;
   }
   
   public Duration getValue() {
-    return value;
+    return wide != null ? wide : Duration.ofNanos(nanos);
   }
   
+  // the long paths below fall back to Duration, which throws ArithmeticException only past its own range
   public CDuration add(CDuration other) {
-    return other == null ? this : new CDuration(value.plus(other.value));
+    if (other == null) return this;
+    if (this.wide == null && other.wide == null) {
+      long sum = this.nanos + other.nanos;
+      if (((this.nanos ^ sum) & (other.nanos ^ sum)) >= 0) return ofNanos(sum);
+    }
+    return of(getValue().plus(other.getValue()));
   }
   
   public CDuration minus(CDuration other) {
-    return other == null ? this : new CDuration(value.minus(other.value));
+    if (other == null) return this;
+    if (this.wide == null && other.wide == null) {
+      long difference = this.nanos - other.nanos;
+      if (((this.nanos ^ other.nanos) & (this.nanos ^ difference)) >= 0) return ofNanos(difference);
+    }
+    return of(getValue().minus(other.getValue()));
   }
   
   public CDuration multiply(long factor) {
-    return new CDuration(value.multipliedBy(factor));
+    if (this.wide == null) {
+      long product = this.nanos * factor;
+      if (Math.multiplyHigh(this.nanos, factor) == product >> 63) return ofNanos(product);
+    }
+    return of(getValue().multipliedBy(factor));
+  }
+  
+  /**
+   * Divides this duration, truncating toward zero.
+   */
+  public CDuration divide(long divisor) {
+    if (divisor == 0) throw new ArithmeticException("Cannot divide by zero");
+    if (divisor == 1) return this;
+    if (this.wide == null && (this.nanos != Long.MIN_VALUE || divisor != -1)) return ofNanos(this.nanos / divisor);
+    return of(getValue().dividedBy(divisor));
   }
   
   public CDuration abs() {
-    return this.isNegative() ? new CDuration(this.value.negated()) : this;
+    if (!this.isNegative()) return this;
+    return this.wide == null && this.nanos != Long.MIN_VALUE ? ofNanos(-this.nanos) : of(getValue().abs());
   }
   
   public boolean isNegative() {
-    return this.value.isNegative();
+    return wide != null ? wide.isNegative() : this.nanos < 0;
   }
   
   public boolean isZero() {
-    return this.value.isZero();
+    return this.wide == null && this.nanos == 0;
   }
   
   public boolean isPositive() {
-    return !this.value.isNegative();
+    return !this.isNegative();
   }
   
   public boolean isLongerOrEqual(CDuration other) {
@@ -110,26 +241,30 @@ public class CDuration implements Comparable<CDuration> {
     return new CPeriod(start, this);
   }
   
+  /**
+   * Returns the ISO-8601 form of {@link Duration#toString()}, such as {@code PT8H6M12.345S}.
+   */
   @Override
   public String toString() {
-    return value.toString();
+    return getValue().toString();
   }
   
   @Override
   public final boolean equals(Object o) {
     if (!(o instanceof CDuration that)) return false;
     
-    return Objects.equals(value, that.value);
+    return nanos == that.nanos && Objects.equals(wide, that.wide);
   }
   
   @Override
   public int hashCode() {
-    return Objects.hashCode(value);
+    return wide != null ? wide.hashCode() : Long.hashCode(nanos);
   }
   
   @Override
   public int compareTo(CDuration o) {
-    return this.value.compareTo(o.value);
+    if (this.wide == null && o.wide == null) return Long.compare(this.nanos, o.nanos);
+    return getValue().compareTo(o.getValue());
   }
   
   public static final class Builder {
@@ -185,14 +320,11 @@ public class CDuration implements Comparable<CDuration> {
     
     public CPeriod build(ZoneId zoneId) {
       CDate start = CDate.currentDate(zoneId);
-      CDate end = start.addYear(years)
-          .addMonth(months)
-          .addDay(days)
-          .addHour(hours)
-          .addMinute(minutes)
-          .addSecond(seconds)
-          .addMillis(milliseconds);
-      return new CPeriod(start, end);
+      return new CPeriod(start, toOffset().applyTo(start));
+    }
+    
+    public CDateOffset toOffset() {
+      return CDateOffset.of(years, months, days, hours, minutes, seconds, milliseconds);
     }
   }
 }
@@ -0,0 +1,166 @@
+package com.chris.cutils;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-memory histogram of {@link CDuration} latencies for percentile queries, in the style of HdrHistogram.
+ * <p>
+ * Durations from zero to a highest trackable duration are counted in log-linear buckets that keep a configurable
+ * number of significant decimal digits (0 to 5), so percentiles are accurate to within {@code 10^-digits} of the
+ * value while the memory depends only on the range and precision: about 36 KB for two digits up to an hour. Recording
+ * is a few shifts and an array increment, and allocates nothing. The exact minimum and maximum are kept as well.
+ * <p>
+ * Not thread-safe; record from many threads with a {@link CDurationRecorder}, or {@link #add(CDurationHistogram) add}
+ * per-thread histograms together.
+ */
+public final class CDurationHistogram {
+  
+  private final CHistogramLayout layout;
+  private final long[] counts;
+  private long totalCount;
+  private long min = Long.MAX_VALUE;
+  private long max = Long.MIN_VALUE;
+  
+  public CDurationHistogram(CDuration highestTrackable, int significantDigits) {
+    this(new CHistogramLayout(highestTrackable.toNanos(), significantDigits));
+  }
+  
+  CDurationHistogram(CHistogramLayout layout) {
+    this.layout = layout;
+    this.counts = new long[layout.length()];
+  }
+  
+  CHistogramLayout layout() {
+    return layout;
+  }
+  
+  public CDuration getHighestTrackable() {
+    return CDuration.ofNanos(layout.getHighestTrackable());
+  }
+  
+  public int getSignificantDigits() {
+    return layout.getSignificantDigits();
+  }
+  
+  public void record(CDuration duration) {
+    record(duration.toNanos(), 1);
+  }
+  
+  public void record(long nanos) {
+    record(nanos, 1);
+  }
+  
+  /**
+   * Records {@code count} occurrences of a duration given in nanos.
+   *
+   * @throws IllegalArgumentException if the duration is negative or above the highest trackable duration.
+   */
+  public void record(long nanos, long count) {
+    if (nanos < 0 || nanos > this.layout.getHighestTrackable()) {
+      throw new IllegalArgumentException("Duration out of the trackable range: " + nanos + "ns");
+    }
+    if (count < 0) throw new IllegalArgumentException("Negative count: " + count);
+    if (count == 0) return;
+    this.counts[this.layout.index(nanos)] += count;
+    this.totalCount += count;
+    if (nanos < this.min) this.min = nanos;
+    if (nanos > this.max) this.max = nanos;
+  }
+  
+  /**
+   * Adds the counts of a histogram with the same highest trackable duration and significant digits.
+   */
+  public void add(CDurationHistogram other) {
+    if (!this.layout.equals(other.layout)) throw new IllegalArgumentException("Histogram layouts differ");
+    if (other.totalCount == 0) return;
+    for (int i = 0; i < this.counts.length; i++) {
+      this.counts[i] += other.counts[i];
+    }
+    this.totalCount += other.totalCount;
+    this.min = Math.min(this.min, other.min);
+    this.max = Math.max(this.max, other.max);
+  }
+  
+  public CDurationHistogram copy() {
+    CDurationHistogram copy = new CDurationHistogram(this.layout);
+    copy.add(this);
+    return copy;
+  }
+  
+  public void reset() {
+    Arrays.fill(this.counts, 0);
+    this.totalCount = 0;
+    this.min = Long.MAX_VALUE;
+    this.max = Long.MIN_VALUE;
+  }
+  
+  public long getTotalCount() {
+    return totalCount;
+  }
+  
+  /**
+   * Returns the smallest recorded duration, or {@link CDuration#ZERO} if nothing was recorded.
+   */
+  public CDuration getMin() {
+    return totalCount == 0 ? CDuration.ZERO : CDuration.ofNanos(min);
+  }
+  
+  /**
+   * Returns the largest recorded duration, or {@link CDuration#ZERO} if nothing was recorded.
+   */
+  public CDuration getMax() {
+    return totalCount == 0 ? CDuration.ZERO : CDuration.ofNanos(max);
+  }
+  
+  /**
+   * Returns the mean, counting each value as the middle of its bucket, or {@link CDuration#ZERO} if nothing was
+   * recorded.
+   */
+  public CDuration getMean() {
+    if (this.totalCount == 0) return CDuration.ZERO;
+    double total = 0;
+    for (int i = 0; i < this.counts.length; i++) {
+      long count = this.counts[i];
+      if (count != 0) total += (double) this.layout.medianValue(i) * count;
+    }
+    return CDuration.ofNanos(Math.round(total / this.totalCount));
+  }
+  
+  /**
+   * Returns the duration at or below which {@code percentile} percent of the recorded durations fall: the highest
+   * duration counted in the same bucket, kept within the recorded minimum and maximum. Returns
+   * {@link CDuration#ZERO} if nothing was recorded.
+   */
+  public CDuration getValueAtPercentile(double percentile) {
+    if (this.totalCount == 0) return CDuration.ZERO;
+    if (!(percentile > 0)) return CDuration.ofNanos(this.min);
+    long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * this.totalCount));
+    long seen = 0;
+    int i = 0;
+    while (i < this.counts.length - 1) {
+      seen += this.counts[i];
+      if (seen >= rank) break;
+      i++;
+    }
+    return CDuration.ofNanos(Math.max(this.min, Math.min(this.layout.highestValue(i), this.max)));
+  }
+  
+  /**
+   * Adds a bucket count moved out of a {@link CDurationRecorder}, whose extremes follow through {@link #addExtremes}.
+   */
+  void addBucket(int index, long count) {
+    this.counts[index] += count;
+    this.totalCount += count;
+  }
+  
+  void addExtremes(long exactMin, long exactMax) {
+    this.min = Math.min(this.min, exactMin);
+    this.max = Math.max(this.max, exactMax);
+  }
+  
+  @Override
+  public String toString() {
+    return "CDurationHistogram{count=" + totalCount + ", min=" + getMin() + ", mean=" + getMean()
+        + ", p50=" + getValueAtPercentile(50) + ", p99=" + getValueAtPercentile(99) + ", max=" + getMax() + '}';
+  }
+}
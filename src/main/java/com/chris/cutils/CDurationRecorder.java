@@ -0,0 +1,144 @@
+package com.chris.cutils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent {@link CDurationHistogram} recorder for measuring latencies from many threads, handing out the
+ * durations recorded since the previous call as interval histograms.
+ * <p>
+ * Threads record into an active interval of atomic counts and extremes while {@link #intervalHistogram()} swaps in an
+ * idle one, in the manner of HdrHistogram's {@code Recorder}: a writer-reader phaser waits for every recording started
+ * on the old interval to finish before its counts are read. A recording therefore lands whole in one interval, with
+ * its count and its contribution to the exact minimum and maximum together, and is never lost or counted twice.
+ * Recording is a few atomic increments and allocates nothing.
+ * <p>
+ * The recorder holds two intervals, each with one {@code long} counter per bucket, so it takes about twice the memory
+ * of a {@link CDurationHistogram} of the same range and precision regardless of the number of recording threads, and
+ * each interval histogram reads one interval's counters in full.
+ */
+public final class CDurationRecorder {
+  
+  private final CHistogramLayout layout;
+  private final Phaser phaser = new Phaser();
+  private volatile Interval active;
+  private Interval idle;
+  
+  public CDurationRecorder(CDuration highestTrackable, int significantDigits) {
+    this.layout = new CHistogramLayout(highestTrackable.toNanos(), significantDigits);
+    this.active = new Interval(this.layout.length());
+    this.idle = new Interval(this.layout.length());
+  }
+  
+  public void record(CDuration duration) {
+    record(duration.toNanos());
+  }
+  
+  /**
+   * Records a duration given in nanos.
+   *
+   * @throws IllegalArgumentException if the duration is negative or above the highest trackable duration.
+   */
+  public void record(long nanos) {
+    if (nanos < 0 || nanos > this.layout.getHighestTrackable()) {
+      throw new IllegalArgumentException("Duration out of the trackable range: " + nanos + "ns");
+    }
+    int index = this.layout.index(nanos);
+    long epoch = this.phaser.enter();
+    try {
+      this.active.record(index, nanos);
+    } finally {
+      this.phaser.exit(epoch);
+    }
+  }
+  
+  /**
+   * Returns the durations recorded since the previous interval, or since the recorder was created, and starts a new
+   * interval.
+   */
+  public CDurationHistogram intervalHistogram() {
+    CDurationHistogram histogram = new CDurationHistogram(this.layout);
+    drainInto(histogram);
+    return histogram;
+  }
+  
+  /**
+   * Like {@link #intervalHistogram()}, reusing a histogram returned by an earlier call instead of allocating one.
+   */
+  public CDurationHistogram intervalHistogram(CDurationHistogram recycled) {
+    if (!recycled.layout().equals(this.layout)) throw new IllegalArgumentException("Histogram layouts differ");
+    recycled.reset();
+    drainInto(recycled);
+    return recycled;
+  }
+  
+  private synchronized void drainInto(CDurationHistogram histogram) {
+    Interval drained = this.active;
+    this.active = this.idle;
+    this.phaser.flip();
+    // every recording into the drained interval has finished, and none can start
+    AtomicLongArray counts = drained.counts;
+    for (int i = 0; i < counts.length(); i++) {
+      long count = counts.get(i);
+      if (count != 0) {
+        histogram.addBucket(i, count);
+        counts.set(i, 0);
+      }
+    }
+    histogram.addExtremes(drained.min.getAndSet(Long.MAX_VALUE), drained.max.getAndSet(Long.MIN_VALUE));
+    this.idle = drained;
+  }
+  
+  private static final class Interval {
+    
+    private final AtomicLongArray counts;
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+    
+    private Interval(int length) {
+      this.counts = new AtomicLongArray(length);
+    }
+    
+    private void record(int index, long nanos) {
+      this.counts.getAndIncrement(index);
+      long current;
+      while (nanos < (current = this.min.get()) && !this.min.compareAndSet(current, nanos)) {
+        // another thread lowered the minimum, check again
+      }
+      while (nanos > (current = this.max.get()) && !this.max.compareAndSet(current, nanos)) {
+        // another thread raised the maximum, check again
+      }
+    }
+  }
+  
+  /**
+   * The writer-reader phaser of HdrHistogram: writers count themselves in on a shared epoch and out on the end epoch
+   * of its phase, whose sign tells the phases apart, and a flip resets the epoch and waits for the old phase's writers.
+   */
+  private static final class Phaser {
+    
+    private final AtomicLong startEpoch = new AtomicLong();
+    private final AtomicLong evenEndEpoch = new AtomicLong();
+    private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+    
+    private long enter() {
+      return this.startEpoch.getAndIncrement();
+    }
+    
+    private void exit(long epoch) {
+      (epoch < 0 ? this.oddEndEpoch : this.evenEndEpoch).getAndIncrement();
+    }
+    
+    // callers must not flip concurrently
+    private void flip() {
+      boolean nextPhaseIsEven = this.startEpoch.get() < 0;
+      long initialEpoch = nextPhaseIsEven ? 0 : Long.MIN_VALUE;
+      (nextPhaseIsEven ? this.evenEndEpoch : this.oddEndEpoch).set(initialEpoch);
+      long startEpochAtFlip = this.startEpoch.getAndSet(initialEpoch);
+      AtomicLong previousEndEpoch = nextPhaseIsEven ? this.oddEndEpoch : this.evenEndEpoch;
+      while (previousEndEpoch.get() != startEpochAtFlip) {
+        Thread.onSpinWait();
+      }
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package com.chris.cutils;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * Count, sum, minimum, maximum and mean of a series of {@link CDuration}s, kept as {@code long} nanos so that
+ * recording a value creates nothing. Modeled on {@link java.util.LongSummaryStatistics}, and like it not
+ * thread-safe; {@link #combine(CDurationStatistics) combine} per-thread instances instead.
+ * <p>
+ * The sum throws {@link ArithmeticException} if it leaves the range of a {@code long} of nanoseconds (about 292
+ * years).
+ */
+public final class CDurationStatistics implements Consumer<CDuration> {
+  
+  private long count;
+  private long sum;
+  private long min = Long.MAX_VALUE;
+  private long max = Long.MIN_VALUE;
+  
+  public static Collector<CDuration, ?, CDurationStatistics> summarizing() {
+    return summarizing(Function.identity());
+  }
+  
+  public static <T> Collector<T, ?, CDurationStatistics> summarizing(Function<? super T, CDuration> mapper) {
+    return Collector.of(
+        CDurationStatistics::new,
+        (statistics, element) -> statistics.accept(mapper.apply(element)),
+        CDurationStatistics::combine,
+        Collector.Characteristics.IDENTITY_FINISH,
+        Collector.Characteristics.UNORDERED);
+  }
+  
+  /**
+   * Records a duration; null is ignored.
+   */
+  @Override
+  public void accept(CDuration duration) {
+    if (duration != null) acceptNanos(duration.toNanos());
+  }
+  
+  public void acceptNanos(long nanos) {
+    this.sum = Math.addExact(this.sum, nanos);
+    this.count++;
+    if (nanos < this.min) this.min = nanos;
+    if (nanos > this.max) this.max = nanos;
+  }
+  
+  public void acceptMillis(long millis) {
+    acceptNanos(Math.multiplyExact(millis, CDuration.NANOS_PER_MILLI));
+  }
+  
+  /**
+   * Adds the values recorded by {@code other} to this one and returns this.
+   */
+  public CDurationStatistics combine(CDurationStatistics other) {
+    this.sum = Math.addExact(this.sum, other.sum);
+    this.count += other.count;
+    this.min = Math.min(this.min, other.min);
+    this.max = Math.max(this.max, other.max);
+    return this;
+  }
+  
+  public void reset() {
+    this.count = 0;
+    this.sum = 0;
+    this.min = Long.MAX_VALUE;
+    this.max = Long.MIN_VALUE;
+  }
+  
+  public long getCount() {
+    return count;
+  }
+  
+  public long getSumNanos() {
+    return sum;
+  }
+  
+  /**
+   * Returns the smallest recorded value in nanos, or {@code Long.MAX_VALUE} if nothing was recorded.
+   */
+  public long getMinNanos() {
+    return min;
+  }
+  
+  /**
+   * Returns the largest recorded value in nanos, or {@code Long.MIN_VALUE} if nothing was recorded.
+   */
+  public long getMaxNanos() {
+    return max;
+  }
+  
+  /**
+   * Returns the mean in nanos, or zero if nothing was recorded.
+   */
+  public double getMeanNanos() {
+    return count == 0 ? 0 : (double) sum / count;
+  }
+  
+  public CDuration getSum() {
+    return CDuration.ofNanos(sum);
+  }
+  
+  /**
+   * Returns the smallest recorded value, or {@link CDuration#ZERO} if nothing was recorded.
+   */
+  public CDuration getMin() {
+    return count == 0 ? CDuration.ZERO : CDuration.ofNanos(min);
+  }
+  
+  /**
+   * Returns the largest recorded value, or {@link CDuration#ZERO} if nothing was recorded.
+   */
+  public CDuration getMax() {
+    return count == 0 ? CDuration.ZERO : CDuration.ofNanos(max);
+  }
+  
+  /**
+   * Returns the mean truncated to whole nanos, or {@link CDuration#ZERO} if nothing was recorded.
+   */
+  public CDuration getMean() {
+    return count == 0 ? CDuration.ZERO : CDuration.ofNanos(sum / count);
+  }
+  
+  @Override
+  public String toString() {
+    return "CDurationStatistics{count=" + count + ", sum=" + getSum() + ", min=" + getMin() + ", mean=" + getMean()
+        + ", max=" + getMax() + '}';
+  }
+}
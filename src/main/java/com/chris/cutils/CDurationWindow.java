@@ -0,0 +1,107 @@
+package com.chris.cutils;
+
+/**
+ * A sliding-window count, sum and average of {@link CDuration}s stamped with a {@link CDate}, such as request
+ * latencies over the last five minutes, in fixed memory.
+ * <p>
+ * Durations are pre-aggregated into sub-buckets of a given granularity as {@code long} nanos; a sum beyond the
+ * {@code long} nanos range, or a duration too long for {@link CDuration#toNanos()}, throws
+ * {@link ArithmeticException}. Expiry follows the record timestamps, or the supplied {@link CClock} if there is one.
+ * Reads never block: {@link #singleWriter} windows take no lock at all when one thread records, the others
+ * synchronize writers.
+ */
+public final class CDurationWindow {
+  
+  private final CWindowRing ring;
+  
+  private CDurationWindow(CWindowRing ring) {
+    this.ring = ring;
+  }
+  
+  public static CDurationWindow of(CDuration window, CDuration granularity) {
+    return of(window, granularity, null);
+  }
+  
+  public static CDurationWindow of(CDuration window, CDuration granularity, CClock clock) {
+    return new CDurationWindow(new CWindowRing(window, granularity, false, clock));
+  }
+  
+  /**
+   * Returns a window that only one thread at a time may record into, while any number of threads read it.
+   */
+  public static CDurationWindow singleWriter(CDuration window, CDuration granularity) {
+    return singleWriter(window, granularity, null);
+  }
+  
+  public static CDurationWindow singleWriter(CDuration window, CDuration granularity, CClock clock) {
+    return new CDurationWindow(new CWindowRing(window, granularity, true, clock));
+  }
+  
+  public CDuration getWindow() {
+    return CDuration.ofMillis(ring.getWindowMillis());
+  }
+  
+  public CDuration getGranularity() {
+    return CDuration.ofMillis(ring.getGranularityMillis());
+  }
+  
+  /**
+   * Records a duration at the time of the supplied clock.
+   *
+   * @throws IllegalStateException if the window has no clock.
+   */
+  public boolean record(CDuration duration) {
+    return ring.record(ring.clockTime(), duration.toNanos());
+  }
+  
+  public boolean record(CDate date, CDuration duration) {
+    return record(date.getTime(), duration);
+  }
+  
+  public boolean record(long time, CDuration duration) {
+    return ring.record(time, duration.toNanos());
+  }
+  
+  /**
+   * Records a duration given in nanos at the given epoch millis; returns false, dropping it, if that time has already
+   * left the window.
+   */
+  public boolean recordNanos(long time, long nanos) {
+    return ring.record(time, nanos);
+  }
+  
+  /**
+   * Returns the number of durations in the window ending now: at the clock's time, or without a clock at the latest
+   * record.
+   */
+  public long count() {
+    return ring.read()[0];
+  }
+  
+  public long count(CDate now) {
+    return ring.read(now.getTime())[0];
+  }
+  
+  public CDuration sum() {
+    return CDuration.ofNanos(ring.read()[1]);
+  }
+  
+  public CDuration sum(CDate now) {
+    return CDuration.ofNanos(ring.read(now.getTime())[1]);
+  }
+  
+  /**
+   * Returns the mean truncated to whole nanos, or {@link CDuration#ZERO} if the window is empty.
+   */
+  public CDuration average() {
+    return average(ring.read());
+  }
+  
+  public CDuration average(CDate now) {
+    return average(ring.read(now.getTime()));
+  }
+  
+  private static CDuration average(long[] totals) {
+    return totals[0] == 0 ? CDuration.ZERO : CDuration.ofNanos(totals[1] / totals[0]);
+  }
+}
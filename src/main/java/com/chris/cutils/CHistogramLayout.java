@@ -0,0 +1,116 @@
+package com.chris.cutils;
+
+/**
+ * The log-linear bucket layout of {@link CDurationHistogram} and {@link CDurationRecorder}, using the index math of
+ * HdrHistogram with a unit of one nanosecond.
+ * <p>
+ * Values are grouped into buckets covering successive powers of two, each split into the same number of linear
+ * sub-buckets, enough to keep {@code significantDigits} decimal digits: a value is only ever confused with values
+ * within {@code 10^-significantDigits} of it. The first bucket holds every value below the sub-bucket count exactly;
+ * the other buckets only use their upper half of sub-buckets, so the counts fit in one flat array.
+ */
+final class CHistogramLayout {
+  
+  private final long highestTrackable;
+  private final int significantDigits;
+  private final int subBucketHalfCountMagnitude;
+  private final int subBucketHalfCount;
+  private final long subBucketMask;
+  private final int leadingZeroCountBase;
+  private final int length;
+  
+  CHistogramLayout(long highestTrackable, int significantDigits) {
+    if (significantDigits < 0 || significantDigits > 5) {
+      throw new IllegalArgumentException("Significant digits must be between 0 and 5: " + significantDigits);
+    }
+    if (highestTrackable < 2) {
+      throw new IllegalArgumentException("Highest trackable value too small: " + highestTrackable + "ns");
+    }
+    this.highestTrackable = highestTrackable;
+    this.significantDigits = significantDigits;
+    long largestSingleUnitValue = 2 * (long) Math.pow(10, significantDigits);
+    int subBucketCountMagnitude = 64 - Long.numberOfLeadingZeros(largestSingleUnitValue - 1);
+    this.subBucketHalfCountMagnitude = Math.max(subBucketCountMagnitude, 1) - 1;
+    int subBucketCount = 1 << (this.subBucketHalfCountMagnitude + 1);
+    this.subBucketHalfCount = subBucketCount / 2;
+    this.subBucketMask = subBucketCount - 1;
+    this.leadingZeroCountBase = 64 - this.subBucketHalfCountMagnitude - 1;
+    // buckets double until the first value they cannot hold is above the highest trackable value
+    long smallestUntrackable = subBucketCount;
+    int bucketCount = 1;
+    while (smallestUntrackable <= highestTrackable) {
+      if (smallestUntrackable > Long.MAX_VALUE / 2) {
+        bucketCount++;
+        break;
+      }
+      smallestUntrackable <<= 1;
+      bucketCount++;
+    }
+    this.length = (bucketCount + 1) * this.subBucketHalfCount;
+  }
+  
+  long getHighestTrackable() {
+    return highestTrackable;
+  }
+  
+  int getSignificantDigits() {
+    return significantDigits;
+  }
+  
+  int length() {
+    return length;
+  }
+  
+  /**
+   * Returns the counts index of a value between zero and the highest trackable value.
+   */
+  int index(long value) {
+    int bucket = this.leadingZeroCountBase - Long.numberOfLeadingZeros(value | this.subBucketMask);
+    int subBucket = (int) (value >>> bucket);
+    return ((bucket + 1) << this.subBucketHalfCountMagnitude) + (subBucket - this.subBucketHalfCount);
+  }
+  
+  /**
+   * Returns the lowest value counted at {@code index}.
+   */
+  long lowestValue(int index) {
+    int bucket = (index >> this.subBucketHalfCountMagnitude) - 1;
+    int subBucket = (index & (this.subBucketHalfCount - 1)) + this.subBucketHalfCount;
+    if (bucket < 0) {
+      subBucket -= this.subBucketHalfCount;
+      bucket = 0;
+    }
+    return (long) subBucket << bucket;
+  }
+  
+  long highestValue(int index) {
+    return lowestValue(index) + rangeSize(index) - 1;
+  }
+  
+  /**
+   * Returns the middle of the values counted at {@code index}, used to stand for them in the mean.
+   */
+  long medianValue(int index) {
+    return lowestValue(index) + (rangeSize(index) >> 1);
+  }
+  
+  private long rangeSize(int index) {
+    return 1L << Math.max((index >> this.subBucketHalfCountMagnitude) - 1, 0);
+  }
+  
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof CHistogramLayout that)) return false;
+    
+    return highestTrackable == that.highestTrackable && length == that.length
+        && subBucketHalfCountMagnitude == that.subBucketHalfCountMagnitude;
+  }
+  
+  @Override
+  public int hashCode() {
+    int result = Long.hashCode(highestTrackable);
+    result = 31 * result + length;
+    result = 31 * result + subBucketHalfCountMagnitude;
+    return result;
+  }
+}
@@ -1,12 +1,16 @@
 package com.chris.cutils;
 
-import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
+import java.util.Comparator;
 import java.util.Objects;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 public class CPeriod implements Comparable<CPeriod> {
   
+  private static final Comparator<CPeriod> LENGTH_ORDER = Comparator.comparingLong(CPeriod::lengthInMillis);
+  
   private final CDate start;
   private final CDate end;
   
@@ -30,6 +34,14 @@ public class CPeriod implements Comparable<CPeriod> {
     this.end = start.addMillis(duration.toMillis());
   }
   
+  /**
+   * Orders periods by length, shortest first, without going through {@code java.time}. To sort or rank many periods,
+   * {@link CPeriodLengths} avoids even the per-comparison subtraction.
+   */
+  public static Comparator<CPeriod> lengthComparator() {
+    return LENGTH_ORDER;
+  }
+  
   public CDate getStart() {
     return start;
   }
@@ -38,12 +50,16 @@ public class CPeriod implements Comparable<CPeriod> {
     return end;
   }
   
+  /**
+   * Returns the length of the period. Periods longer than about 292 years give a duration whose
+   * {@link CDuration#toNanos()} throws {@link ArithmeticException}; the other conversions still work.
+   */
   public CDuration toDuration() {
-    return new CDuration(Duration.between(start.toLocalDateTime(), end.toLocalDateTime()));
+    return new CDuration(this);
   }
   
   public long getDurationInMilliseconds() {
-    return getDuration(ChronoUnit.MILLIS);
+    return lengthInMillis();
   }
   
   public long getDurationInSeconds() {
@@ -74,10 +90,139 @@ public class CPeriod implements Comparable<CPeriod> {
     return getDuration(ChronoUnit.YEARS);
   }
   
+  /**
+   * Returns the number of whole units between start and end, as {@code LocalDateTime.until} does. Units of fixed
+   * length are computed from the epoch millis, months and longer units with calendar arithmetic.
+   */
   public long getDuration(TemporalUnit unit) {
+    if (!(unit instanceof ChronoUnit chronoUnit)) return until(unit);
+    long millis = lengthInMillis();
+    return switch (chronoUnit) {
+      case NANOS -> Math.multiplyExact(millis, 1_000_000L);
+      case MICROS -> Math.multiplyExact(millis, 1_000L);
+      case MILLIS, SECONDS, MINUTES, HOURS, HALF_DAYS, DAYS, WEEKS -> millis / chronoUnit.getDuration().toMillis();
+      case MONTHS -> monthsBetween();
+      case YEARS -> monthsBetween() / 12;
+      case DECADES -> monthsBetween() / 120;
+      case CENTURIES -> monthsBetween() / 1200;
+      case MILLENNIA -> monthsBetween() / 12000;
+      case ERAS, FOREVER -> until(unit);
+    };
+  }
+  
+  private long until(TemporalUnit unit) {
     return this.start.toLocalDateTime().until(this.end.toLocalDateTime(), unit);
   }
   
+  private long monthsBetween() {
+    return CCalendar.monthsBetween(this.start.getTime(), this.end.getTime());
+  }
+  
+  private long lengthInMillis() {
+    return this.end.getTime() - this.start.getTime();
+  }
+  
+  /**
+   * Returns the epoch millis from the start, one {@code step} apart, up to and including the end. The stream is lazy
+   * and sized, and splits evenly by index when run in parallel.
+   */
+  public LongStream times(CDuration step) {
+    return times(stepMillis(step.toMillis()), 0);
+  }
+  
+  /**
+   * Like {@link #times(CDuration)}, stepping {@code amount} units at a time. Month-based units (months to millennia)
+   * step in calendar months counted from the start, clamping the day to the end of the month, so the steps of a
+   * period starting on Jan 31 fall on Feb 28 (or 29), Mar 31, Apr 30 and so on.
+   */
+  public LongStream times(long amount, ChronoUnit unit) {
+    long months = monthsOf(unit);
+    return months > 0
+        ? times(0, stepMonths(Math.multiplyExact(amount, months)))
+        : times(stepMillis(Math.multiplyExact(amount, unit.getDuration().toMillis())), 0);
+  }
+  
+  public Stream<CDate> dates(CDuration step) {
+    return times(step).mapToObj(CDate::new);
+  }
+  
+  public Stream<CDate> dates(long amount, ChronoUnit unit) {
+    return times(amount, unit).mapToObj(CDate::new);
+  }
+  
+  /**
+   * Cuts the period into consecutive sub-periods of {@code step}, the last one ending at the end of this period.
+   */
+  public Stream<CPeriod> split(CDuration step) {
+    return split(stepMillis(step.toMillis()), 0);
+  }
+  
+  public Stream<CPeriod> split(long amount, ChronoUnit unit) {
+    long months = monthsOf(unit);
+    return months > 0
+        ? split(0, stepMonths(Math.multiplyExact(amount, months)))
+        : split(stepMillis(Math.multiplyExact(amount, unit.getDuration().toMillis())), 0);
+  }
+  
+  private LongStream times(long stepMillis, long stepMonths) {
+    long from = this.start.getTime();
+    return LongStream.rangeClosed(0, lastStep(stepMillis, stepMonths))
+        .map(i -> stepTime(from, i, stepMillis, stepMonths));
+  }
+  
+  private Stream<CPeriod> split(long stepMillis, long stepMonths) {
+    long from = this.start.getTime();
+    long to = this.end.getTime();
+    long last = lastStep(stepMillis, stepMonths);
+    // a step landing exactly on the end starts no sub-period, unless the period is empty
+    if (last > 0 && stepTime(from, last, stepMillis, stepMonths) == to) last--;
+    return LongStream.rangeClosed(0, last).mapToObj(i -> new CPeriod(
+        new CDate(stepTime(from, i, stepMillis, stepMonths)),
+        new CDate(Math.min(stepTime(from, i + 1, stepMillis, stepMonths), to))));
+  }
+  
+  // index of the last step that is not after the end, or -1 if the period is reversed
+  private long lastStep(long stepMillis, long stepMonths) {
+    long from = this.start.getTime();
+    long to = this.end.getTime();
+    if (to < from) return -1;
+    if (stepMonths == 0) return (to - from) / stepMillis;
+    // month lengths differ, so the whole-month count can be one step off in either direction
+    long last = CCalendar.monthsBetween(from, to) / stepMonths;
+    while (stepTime(from, last + 1, 0, stepMonths) <= to) {
+      last++;
+    }
+    while (last >= 0 && stepTime(from, last, 0, stepMonths) > to) {
+      last--;
+    }
+    return last;
+  }
+  
+  private static long stepTime(long from, long index, long stepMillis, long stepMonths) {
+    return stepMonths == 0 ? from + index * stepMillis : CCalendar.plusMonths(from, index * stepMonths);
+  }
+  
+  private static long stepMillis(long millis) {
+    if (millis <= 0) throw new IllegalArgumentException("Step must be at least one millisecond: " + millis + "ms");
+    return millis;
+  }
+  
+  private static long stepMonths(long months) {
+    if (months <= 0) throw new IllegalArgumentException("Step must be positive: " + months + " months");
+    return months;
+  }
+  
+  private static long monthsOf(ChronoUnit unit) {
+    return switch (unit) {
+      case MONTHS -> 1;
+      case YEARS -> 12;
+      case DECADES -> 120;
+      case CENTURIES -> 1200;
+      case MILLENNIA -> 12000;
+      default -> 0;
+    };
+  }
+  
   public boolean contains(CDate date) {
     return !start.isGreater(date) && !end.isLess(date);
   }
@@ -102,6 +247,10 @@ public class CPeriod implements Comparable<CPeriod> {
     return new CPeriod(this.start.addYear(years), this.end.addYear(years));
   }
   
+  public CPeriod shift(CDateOffset offset) {
+    return offset.applyTo(this);
+  }
+  
   public CPeriod extend(int days) {
     return new CPeriod(this.start, this.end.addDay(days));
   }
@@ -121,19 +270,19 @@ public class CPeriod implements Comparable<CPeriod> {
   }
   
   public boolean isLongerOrEqual(CPeriod other) {
-    return this.getDurationInMilliseconds() >= other.getDurationInMilliseconds();
+    return this.lengthInMillis() >= other.lengthInMillis();
   }
   
   public boolean isLonger(CPeriod other) {
-    return this.getDurationInMilliseconds() > other.getDurationInMilliseconds();
+    return this.lengthInMillis() > other.lengthInMillis();
   }
   
   public boolean isShorterOrEqual(CPeriod other) {
-    return this.getDurationInMilliseconds() <= other.getDurationInMilliseconds();
+    return this.lengthInMillis() <= other.lengthInMillis();
   }
   
   public boolean isShorter(CPeriod other) {
-    return this.getDurationInMilliseconds() < other.getDurationInMilliseconds();
+    return this.lengthInMillis() < other.lengthInMillis();
   }
   
   @Override
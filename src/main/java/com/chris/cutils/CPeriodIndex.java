@@ -0,0 +1,489 @@
+package com.chris.cutils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * An interval index answering "which periods contain this instant / overlap this window" over primitive epoch-milli
+ * arrays.
+ * <p>
+ * Periods are closed {@code [start, end]} ranges, like {@link CPeriod#contains(CDate)} and
+ * {@link CPeriod#overlaps(CPeriod)}. Each one is identified by an {@code int} id: its position in the list or arrays
+ * the index was built from, or the value returned by {@link #add(long, long)}.
+ * <p>
+ * Periods are kept sorted by start and read as an implicit augmented binary tree (the cgranges layout): the element at
+ * index {@code i} with {@code k} trailing one bits is a node on level {@code k}, and {@code maxEnds[i]} holds the
+ * largest end in its subtree, so overlap queries take {@code O(log n + hits)}. Count queries use a separately sorted
+ * copy of the ends and take {@code O(log n)}: the periods overlapping {@code [from, to]} are those starting at or
+ * before {@code to}, minus those ending before {@code from}.
+ * <p>
+ * Incremental {@link #add(long, long)} and {@link #remove(int)} go to a small unsorted buffer and a tombstone set, which
+ * queries scan linearly; both are folded back into the sorted arrays once they grow past about {@code sqrt(n)}
+ * entries. Not thread-safe, and the index must not be modified while one of its iterators is in use.
+ */
+public final class CPeriodIndex {
+  
+  private static final int MIN_BUFFER = 64;
+  private static final int ABSENT = Integer.MIN_VALUE;
+  // levels at or below this are scanned linearly instead of descended
+  private static final int SCAN_LEVEL = 3;
+  
+  private long[] starts;
+  private long[] ends;
+  private long[] maxEnds;
+  private long[] sortedEnds;
+  private int[] ids;
+  private int length;
+  private int rootLevel;
+  
+  private BitSet removed;
+  private int[] removedPositions = new int[0];
+  private int removedCount;
+  
+  private long[] pendingStarts = new long[0];
+  private long[] pendingEnds = new long[0];
+  private int[] pendingIds = new int[0];
+  private int pendingCount;
+  
+  // id -> position in the sorted arrays, ~index in the pending buffer, or ABSENT; built on the first remove
+  private int[] positions;
+  private int nextId;
+  
+  public CPeriodIndex() {
+    this(new long[0], new long[0], new int[0], 0);
+  }
+  
+  private CPeriodIndex(long[] starts, long[] ends, int[] ids, int length) {
+    this.nextId = length;
+    index(starts, ends, ids, length);
+  }
+  
+  /**
+   * Builds an index over the given periods; the id of each period is its position in the list.
+   */
+  public static CPeriodIndex of(List<CPeriod> periods) {
+    int n = periods.size();
+    long[] starts = new long[n];
+    long[] ends = new long[n];
+    int i = 0;
+    for (CPeriod period : periods) {
+      starts[i] = period.getStart().getTime();
+      ends[i] = period.getEnd().getTime();
+      i++;
+    }
+    return build(starts, ends);
+  }
+  
+  /**
+   * Builds an index over the periods {@code [starts[i], ends[i]]}; the id of each period is {@code i}. The arrays are
+   * copied.
+   */
+  public static CPeriodIndex of(long[] starts, long[] ends) {
+    if (starts.length != ends.length) throw new IllegalArgumentException("Length mismatch");
+    return build(starts.clone(), ends.clone());
+  }
+  
+  private static CPeriodIndex build(long[] starts, long[] ends) {
+    int n = starts.length;
+    int[] ids = new int[n];
+    for (int i = 0; i < n; i++) {
+      checkPeriod(starts[i], ends[i]);
+      ids[i] = i;
+    }
+    sort(starts, ends, ids, 0, n);
+    return new CPeriodIndex(starts, ends, ids, n);
+  }
+  
+  public int size() {
+    return this.length - this.removedCount + this.pendingCount;
+  }
+  
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+  
+  public int add(CPeriod period) {
+    return add(period.getStart().getTime(), period.getEnd().getTime());
+  }
+  
+  /**
+   * Adds the period {@code [start, end]} and returns its id.
+   */
+  public int add(long start, long end) {
+    checkPeriod(start, end);
+    if (this.nextId == Integer.MAX_VALUE) throw new IllegalStateException("Ids exhausted");
+    int id = this.nextId++;
+    int index = this.pendingCount++;
+    if (index == this.pendingStarts.length) {
+      int capacity = Math.max(8, index * 2);
+      this.pendingStarts = Arrays.copyOf(this.pendingStarts, capacity);
+      this.pendingEnds = Arrays.copyOf(this.pendingEnds, capacity);
+      this.pendingIds = Arrays.copyOf(this.pendingIds, capacity);
+    }
+    this.pendingStarts[index] = start;
+    this.pendingEnds[index] = end;
+    this.pendingIds[index] = id;
+    if (this.positions != null) {
+      if (id >= this.positions.length) {
+        int old = this.positions.length;
+        this.positions = Arrays.copyOf(this.positions, Math.max(8, old * 2));
+        Arrays.fill(this.positions, old, this.positions.length, ABSENT);
+      }
+      this.positions[id] = ~index;
+    }
+    compactIfNeeded();
+    return id;
+  }
+  
+  /**
+   * Removes the period with the given id, returning {@code false} if there is none.
+   */
+  public boolean remove(int id) {
+    if (id < 0 || id >= this.nextId) return false;
+    int[] pos = positions();
+    int position = pos[id];
+    if (position == ABSENT) return false;
+    pos[id] = ABSENT;
+    if (position >= 0) {
+      if (this.removed == null) this.removed = new BitSet(this.length);
+      this.removed.set(position);
+      if (this.removedCount == this.removedPositions.length) {
+        this.removedPositions = Arrays.copyOf(this.removedPositions, Math.max(8, this.removedCount * 2));
+      }
+      this.removedPositions[this.removedCount++] = position;
+    } else {
+      int index = ~position;
+      int last = --this.pendingCount;
+      if (index != last) {
+        this.pendingStarts[index] = this.pendingStarts[last];
+        this.pendingEnds[index] = this.pendingEnds[last];
+        this.pendingIds[index] = this.pendingIds[last];
+        pos[this.pendingIds[index]] = ~index;
+      }
+    }
+    compactIfNeeded();
+    return true;
+  }
+  
+  public PrimitiveIterator.OfInt containing(CDate date) {
+    return containing(date.getTime());
+  }
+  
+  /**
+   * Returns the ids of the periods containing {@code time}, produced lazily.
+   */
+  public PrimitiveIterator.OfInt containing(long time) {
+    return new Overlaps(time, time);
+  }
+  
+  public int[] containingIds(long time) {
+    return overlappingIds(time, time);
+  }
+  
+  public int countContaining(CDate date) {
+    return countContaining(date.getTime());
+  }
+  
+  public int countContaining(long time) {
+    return countOverlapping(time, time);
+  }
+  
+  public PrimitiveIterator.OfInt overlapping(CPeriod period) {
+    return overlapping(period.getStart().getTime(), period.getEnd().getTime());
+  }
+  
+  /**
+   * Returns the ids of the periods overlapping {@code [from, to]}, produced lazily.
+   */
+  public PrimitiveIterator.OfInt overlapping(long from, long to) {
+    checkPeriod(from, to);
+    return new Overlaps(from, to);
+  }
+  
+  public int[] overlappingIds(long from, long to) {
+    PrimitiveIterator.OfInt it = overlapping(from, to);
+    int[] result = new int[16];
+    int count = 0;
+    while (it.hasNext()) {
+      if (count == result.length) result = Arrays.copyOf(result, count * 2);
+      result[count++] = it.nextInt();
+    }
+    return Arrays.copyOf(result, count);
+  }
+  
+  public int countOverlapping(CPeriod period) {
+    return countOverlapping(period.getStart().getTime(), period.getEnd().getTime());
+  }
+  
+  public int countOverlapping(long from, long to) {
+    checkPeriod(from, to);
+    int count = upperBound(this.starts, this.length, to) - lowerBound(this.sortedEnds, this.length, from);
+    for (int i = 0; i < this.removedCount; i++) {
+      int position = this.removedPositions[i];
+      if (this.starts[position] <= to && this.ends[position] >= from) count--;
+    }
+    for (int i = 0; i < this.pendingCount; i++) {
+      if (this.pendingStarts[i] <= to && this.pendingEnds[i] >= from) count++;
+    }
+    return count;
+  }
+  
+  private void compactIfNeeded() {
+    int threshold = Math.max(MIN_BUFFER, (int) Math.sqrt(this.length));
+    if (this.pendingCount + this.removedCount <= threshold) return;
+    int live = size();
+    long[] s = new long[live];
+    long[] e = new long[live];
+    int[] id = new int[live];
+    int n = 0;
+    for (int i = 0; i < this.length; i++) {
+      if (this.removed != null && this.removed.get(i)) continue;
+      s[n] = this.starts[i];
+      e[n] = this.ends[i];
+      id[n] = this.ids[i];
+      n++;
+    }
+    int mid = n;
+    System.arraycopy(this.pendingStarts, 0, s, mid, this.pendingCount);
+    System.arraycopy(this.pendingEnds, 0, e, mid, this.pendingCount);
+    System.arraycopy(this.pendingIds, 0, id, mid, this.pendingCount);
+    sort(s, e, id, mid, live);
+    long[] mergedStarts = new long[live];
+    long[] mergedEnds = new long[live];
+    int[] mergedIds = new int[live];
+    merge(s, e, id, 0, mid, live, mergedStarts, mergedEnds, mergedIds);
+    
+    this.removed = null;
+    this.removedCount = 0;
+    this.pendingCount = 0;
+    this.positions = null;
+    index(mergedStarts, mergedEnds, mergedIds, live);
+  }
+  
+  private void index(long[] starts, long[] ends, int[] ids, int n) {
+    this.starts = starts;
+    this.ends = ends;
+    this.ids = ids;
+    this.length = n;
+    this.sortedEnds = Arrays.copyOf(ends, n);
+    Arrays.sort(this.sortedEnds);
+    
+    // cgranges: leaves are the even indices, a node on level k has k trailing one bits and children at i -/+ 2^(k-1);
+    // right children past the end borrow the max end of the last complete subtree
+    long[] max = new long[n];
+    this.maxEnds = max;
+    this.rootLevel = -1;
+    if (n == 0) return;
+    long lastIndex = 0;
+    long last = 0;
+    for (int i = 0; i < n; i += 2) {
+      lastIndex = i;
+      last = max[i] = ends[i];
+    }
+    int k;
+    for (k = 1; 1L << k <= n; k++) {
+      long x = 1L << (k - 1);
+      long step = x << 2;
+      for (long i = (x << 1) - 1; i < n; i += step) {
+        long left = max[(int) (i - x)];
+        long right = i + x < n ? max[(int) (i + x)] : last;
+        max[(int) i] = Math.max(ends[(int) i], Math.max(left, right));
+      }
+      lastIndex = (lastIndex >> k & 1) != 0 ? lastIndex - x : lastIndex + x;
+      if (lastIndex < n && max[(int) lastIndex] > last) last = max[(int) lastIndex];
+    }
+    this.rootLevel = k - 1;
+  }
+  
+  private int[] positions() {
+    if (this.positions == null) {
+      int[] pos = new int[Math.max(8, this.nextId)];
+      Arrays.fill(pos, ABSENT);
+      for (int i = 0; i < this.length; i++) {
+        if (this.removed == null || !this.removed.get(i)) pos[this.ids[i]] = i;
+      }
+      for (int i = 0; i < this.pendingCount; i++) {
+        pos[this.pendingIds[i]] = ~i;
+      }
+      this.positions = pos;
+    }
+    return this.positions;
+  }
+  
+  /**
+   * Top-down traversal of the implicit tree with an explicit stack, yielding matches in start order, then the
+   * matches in the pending buffer.
+   */
+  private final class Overlaps implements PrimitiveIterator.OfInt {
+    
+    private final long from;
+    private final long to;
+    private final int[] levels = new int[64];
+    private final long[] nodes = new long[64];
+    private final boolean[] leftDone = new boolean[64];
+    private int top;
+    private int scan;
+    private int scanEnd;
+    private int pending;
+    private boolean ready;
+    private int next;
+    
+    Overlaps(long from, long to) {
+      this.from = from;
+      this.to = to;
+      if (rootLevel >= 0) push(rootLevel, (1L << rootLevel) - 1, false);
+    }
+    
+    @Override
+    public boolean hasNext() {
+      return this.ready || (this.ready = advance());
+    }
+    
+    @Override
+    public int nextInt() {
+      if (!hasNext()) throw new NoSuchElementException();
+      this.ready = false;
+      return this.next;
+    }
+    
+    private boolean advance() {
+      for (;;) {
+        while (this.scan < this.scanEnd) {
+          int i = this.scan++;
+          if (starts[i] > this.to) {
+            this.scanEnd = this.scan;
+          } else if (ends[i] >= this.from && isLive(i)) {
+            this.next = ids[i];
+            return true;
+          }
+        }
+        if (this.top == 0) break;
+        this.top--;
+        int k = this.levels[this.top];
+        long x = this.nodes[this.top];
+        if (k <= SCAN_LEVEL) {
+          long first = x >> k << k;
+          this.scan = (int) first;
+          this.scanEnd = (int) Math.min(first + (1L << (k + 1)) - 1, length);
+        } else if (!this.leftDone[this.top]) {
+          long left = x - (1L << (k - 1));
+          push(k, x, true);
+          if (left >= length || maxEnds[(int) left] >= this.from) push(k - 1, left, false);
+        } else if (x < length && starts[(int) x] <= this.to) {
+          push(k - 1, x + (1L << (k - 1)), false);
+          int i = (int) x;
+          if (ends[i] >= this.from && isLive(i)) {
+            this.next = ids[i];
+            return true;
+          }
+        }
+      }
+      while (this.pending < pendingCount) {
+        int i = this.pending++;
+        if (pendingStarts[i] <= this.to && pendingEnds[i] >= this.from) {
+          this.next = pendingIds[i];
+          return true;
+        }
+      }
+      return false;
+    }
+    
+    private void push(int level, long node, boolean left) {
+      this.levels[this.top] = level;
+      this.nodes[this.top] = node;
+      this.leftDone[this.top] = left;
+      this.top++;
+    }
+    
+    private boolean isLive(int position) {
+      return removed == null || !removed.get(position);
+    }
+  }
+  
+  private static void checkPeriod(long start, long end) {
+    if (start > end) throw new IllegalArgumentException("Start date cannot be after end date");
+  }
+  
+  // number of values <= key
+  private static int upperBound(long[] a, int n, long key) {
+    int lo = 0;
+    int hi = n;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (a[mid] <= key) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+  
+  // number of values < key
+  private static int lowerBound(long[] a, int n, long key) {
+    int lo = 0;
+    int hi = n;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (a[mid] < key) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+  
+  /**
+   * Stable bottom-up merge sort of the parallel arrays over {@code [from, to)}, by start then end.
+   */
+  private static void sort(long[] s, long[] e, int[] id, int from, int to) {
+    boolean sorted = true;
+    for (int i = from + 1; i < to && sorted; i++) {
+      sorted = compare(s, e, i - 1, i) <= 0;
+    }
+    if (sorted) return;
+    int n = to - from;
+    long[] as = Arrays.copyOfRange(s, from, to);
+    long[] ae = Arrays.copyOfRange(e, from, to);
+    int[] aid = Arrays.copyOfRange(id, from, to);
+    long[] bs = new long[n];
+    long[] be = new long[n];
+    int[] bid = new int[n];
+    for (int width = 1; width < n; width <<= 1) {
+      for (int lo = 0, hi; lo < n; lo = hi) {
+        int mid = (int) Math.min((long) lo + width, n);
+        hi = (int) Math.min((long) mid + width, n);
+        merge(as, ae, aid, lo, mid, hi, bs, be, bid);
+      }
+      long[] swap = as;
+      as = bs;
+      bs = swap;
+      swap = ae;
+      ae = be;
+      be = swap;
+      int[] swapIds = aid;
+      aid = bid;
+      bid = swapIds;
+    }
+    System.arraycopy(as, 0, s, from, n);
+    System.arraycopy(ae, 0, e, from, n);
+    System.arraycopy(aid, 0, id, from, n);
+  }
+  
+  /**
+   * Merges the sorted runs {@code [lo, mid)} and {@code [mid, hi)} into the same positions of the target arrays.
+   */
+  private static void merge(long[] s, long[] e, int[] id, int lo, int mid, int hi, long[] ts, long[] te, int[] tid) {
+    int i = lo;
+    int j = mid;
+    for (int k = lo; k < hi; k++) {
+      int from = j >= hi || (i < mid && compare(s, e, i, j) <= 0) ? i++ : j++;
+      ts[k] = s[from];
+      te[k] = e[from];
+      tid[k] = id[from];
+    }
+  }
+  
+  private static int compare(long[] s, long[] e, int i, int j) {
+    int c = Long.compare(s[i], s[j]);
+    return c != 0 ? c : Long.compare(e[i], e[j]);
+  }
+}
@@ -0,0 +1,168 @@
+package com.chris.cutils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The lengths in millis of a list of periods, computed once, for sorting and ranking periods by duration.
+ * <p>
+ * Results are indexes into the original list. {@link #sortedIndexes()} is a stable LSD radix sort ({@code O(n)}, no
+ * comparator calls); {@link #longest(int)} and {@link #shortest(int)} keep a bounded heap of {@code k} indexes
+ * ({@code O(n log k)}). Ties are broken by index, so results are deterministic.
+ */
+public final class CPeriodLengths {
+  
+  private static final int RADIX_BITS = 8;
+  private static final int RADIX = 1 << RADIX_BITS;
+  
+  private final long[] lengths;
+  
+  private CPeriodLengths(long[] lengths) {
+    this.lengths = lengths;
+  }
+  
+  public static CPeriodLengths of(List<CPeriod> periods) {
+    long[] lengths = new long[periods.size()];
+    int i = 0;
+    for (CPeriod period : periods) {
+      lengths[i++] = period.getDurationInMilliseconds();
+    }
+    return new CPeriodLengths(lengths);
+  }
+  
+  public static CPeriodLengths of(long[] starts, long[] ends) {
+    if (starts.length != ends.length) throw new IllegalArgumentException("Length mismatch");
+    long[] lengths = new long[starts.length];
+    for (int i = 0; i < lengths.length; i++) {
+      lengths[i] = ends[i] - starts[i];
+    }
+    return new CPeriodLengths(lengths);
+  }
+  
+  public int size() {
+    return lengths.length;
+  }
+  
+  public long lengthInMillis(int index) {
+    return lengths[index];
+  }
+  
+  public long[] toArray() {
+    return lengths.clone();
+  }
+  
+  /**
+   * Returns the indexes of all periods, shortest first; equal lengths keep their original order.
+   */
+  public int[] sortedIndexes() {
+    int n = this.lengths.length;
+    // flipping the sign bit makes the unsigned digit order match the signed order
+    long[] keys = new long[n];
+    int[] indexes = new int[n];
+    long differing = 0;
+    for (int i = 0; i < n; i++) {
+      keys[i] = this.lengths[i] ^ Long.MIN_VALUE;
+      indexes[i] = i;
+      differing |= keys[i] ^ keys[0];
+    }
+    long[] keyBuffer = new long[n];
+    int[] indexBuffer = new int[n];
+    int[] counts = new int[RADIX];
+    for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+      // a digit shared by every key leaves the order unchanged
+      if ((differing >>> shift & (RADIX - 1)) == 0) continue;
+      Arrays.fill(counts, 0);
+      for (long key : keys) {
+        counts[(int) (key >>> shift) & (RADIX - 1)]++;
+      }
+      for (int d = 0, total = 0; d < RADIX; d++) {
+        int count = counts[d];
+        counts[d] = total;
+        total += count;
+      }
+      for (int i = 0; i < n; i++) {
+        int target = counts[(int) (keys[i] >>> shift) & (RADIX - 1)]++;
+        keyBuffer[target] = keys[i];
+        indexBuffer[target] = indexes[i];
+      }
+      long[] swapKeys = keys;
+      keys = keyBuffer;
+      keyBuffer = swapKeys;
+      int[] swapIndexes = indexes;
+      indexes = indexBuffer;
+      indexBuffer = swapIndexes;
+    }
+    return indexes;
+  }
+  
+  /**
+   * Returns the indexes of the {@code k} longest periods, longest first; among equal lengths the lower index wins.
+   */
+  public int[] longest(int k) {
+    return select(k, true);
+  }
+  
+  /**
+   * Returns the indexes of the {@code k} shortest periods, shortest first; among equal lengths the lower index wins.
+   */
+  public int[] shortest(int k) {
+    return select(k, false);
+  }
+  
+  private int[] select(int k, boolean longest) {
+    if (k < 0) throw new IllegalArgumentException("Negative k: " + k);
+    k = Math.min(k, this.lengths.length);
+    if (k == 0) return new int[0];
+    // heap of the k best indexes so far, the worst of them at the root
+    int[] heap = new int[k];
+    int size = 0;
+    for (int i = 0; i < this.lengths.length; i++) {
+      if (size < k) {
+        heap[size] = i;
+        siftUp(heap, size++, longest);
+      } else if (better(i, heap[0], longest)) {
+        heap[0] = i;
+        siftDown(heap, size, longest);
+      }
+    }
+    // popping the worst repeatedly fills the result from the back
+    int[] result = new int[k];
+    for (int i = k - 1; i >= 0; i--) {
+      result[i] = heap[0];
+      heap[0] = heap[--size];
+      siftDown(heap, size, longest);
+    }
+    return result;
+  }
+  
+  private boolean better(int a, int b, boolean longest) {
+    long la = this.lengths[a];
+    long lb = this.lengths[b];
+    if (la != lb) return longest ? la > lb : la < lb;
+    return a < b;
+  }
+  
+  private void siftUp(int[] heap, int i, boolean longest) {
+    int index = heap[i];
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (!better(heap[parent], index, longest)) break;
+      heap[i] = heap[parent];
+      i = parent;
+    }
+    heap[i] = index;
+  }
+  
+  private void siftDown(int[] heap, int size, boolean longest) {
+    if (size == 0) return;
+    int index = heap[0];
+    int i = 0;
+    for (int child = 1; child < size; child = 2 * i + 1) {
+      if (child + 1 < size && better(heap[child], heap[child + 1], longest)) child++;
+      if (!better(index, heap[child], longest)) break;
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = index;
+  }
+}
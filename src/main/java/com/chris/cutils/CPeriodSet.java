@@ -0,0 +1,303 @@
+package com.chris.cutils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable set of instants, stored as sorted, disjoint epoch-milli intervals.
+ * <p>
+ * Internally, and in the {@code long} methods, intervals are half-open {@code [start, end)}: the end instant is not
+ * part of the set. That way touching intervals such as {@code [09:00, 10:00)} and {@code [10:00, 11:00)} merge into
+ * one, and complements and differences need no off-by-one-milli adjustments.
+ * <p>
+ * A {@link CPeriod} is closed, as {@link CPeriod#contains(CDate)} and {@link CPeriodIndex} treat it, so the methods
+ * taking or returning periods convert at the boundary: {@code [start, end]} is the half-open
+ * {@code [start, end + 1ms)}. {@code CPeriodSet.of(period).contains(period.getEnd())} is therefore true, a
+ * zero-length period is the single instant it starts on, and the set's {@link #duration()} counts that last milli.
+ * <p>
+ * The intervals are packed into a single {@code long[]} of boundaries {@code start0, end0, start1, end1, ...} with no
+ * two intervals overlapping or touching. Union, intersection and difference merge the boundary arrays in
+ * {@code O(n + m)}; {@link #contains(long)} and {@link #overlaps(long, long)} binary-search them. {@code CPeriod}
+ * objects are only created by {@link #get(int)} and {@link #toPeriods()}.
+ */
+public final class CPeriodSet {
+  
+  public static final CPeriodSet EMPTY = new CPeriodSet(new long[0]);
+  
+  private static final int UNION = 0;
+  private static final int INTERSECTION = 1;
+  private static final int DIFFERENCE = 2;
+  
+  private final long[] bounds;
+  
+  private CPeriodSet(long[] bounds) {
+    this.bounds = bounds;
+  }
+  
+  public static CPeriodSet of(CPeriod... periods) {
+    return of(Arrays.asList(periods));
+  }
+  
+  public static CPeriodSet of(Collection<CPeriod> periods) {
+    long[] starts = new long[periods.size()];
+    long[] ends = new long[periods.size()];
+    int i = 0;
+    for (CPeriod period : periods) {
+      starts[i] = period.getStart().getTime();
+      ends[i] = exclusiveEnd(period);
+      i++;
+    }
+    return normalize(starts, ends);
+  }
+  
+  /**
+   * Returns the set covering {@code [start, end)}.
+   */
+  public static CPeriodSet of(long start, long end) {
+    if (start > end) throw new IllegalArgumentException("Start date cannot be after end date");
+    return start == end ? EMPTY : new CPeriodSet(new long[]{start, end});
+  }
+  
+  /**
+   * Returns the union of the intervals {@code [starts[i], ends[i])}, in any order and possibly overlapping.
+   */
+  public static CPeriodSet of(long[] starts, long[] ends) {
+    if (starts.length != ends.length) throw new IllegalArgumentException("Length mismatch");
+    return normalize(starts.clone(), ends.clone());
+  }
+  
+  // sorting starts and ends separately is enough for a union: sweep both in order and keep a nesting depth
+  private static CPeriodSet normalize(long[] starts, long[] ends) {
+    int n = starts.length;
+    for (int i = 0; i < n; i++) {
+      if (starts[i] > ends[i]) throw new IllegalArgumentException("Start date cannot be after end date");
+    }
+    Arrays.sort(starts);
+    Arrays.sort(ends);
+    long[] out = new long[2 * n];
+    int count = 0;
+    int depth = 0;
+    int i = 0;
+    int j = 0;
+    while (j < n) {
+      // on a tie, open before closing so that touching intervals merge
+      if (i < n && starts[i] <= ends[j]) {
+        if (depth++ == 0) out[count++] = starts[i];
+        i++;
+      } else {
+        if (--depth == 0) out[count++] = ends[j];
+        j++;
+      }
+    }
+    return fromBounds(out, count);
+  }
+  
+  private static CPeriodSet fromBounds(long[] out, int count) {
+    // a zero-length interval opens and closes on the same instant
+    int n = 0;
+    for (int k = 0; k < count; k += 2) {
+      if (out[k] == out[k + 1]) continue;
+      out[n++] = out[k];
+      out[n++] = out[k + 1];
+    }
+    return n == 0 ? EMPTY : new CPeriodSet(n == out.length ? out : Arrays.copyOf(out, n));
+  }
+  
+  /**
+   * Returns the number of disjoint intervals.
+   */
+  public int size() {
+    return this.bounds.length >> 1;
+  }
+  
+  public boolean isEmpty() {
+    return this.bounds.length == 0;
+  }
+  
+  public long getStart(int index) {
+    return this.bounds[checkIndex(index) << 1];
+  }
+  
+  /**
+   * Returns the exclusive end of the interval at {@code index}.
+   */
+  public long getEnd(int index) {
+    return this.bounds[(checkIndex(index) << 1) + 1];
+  }
+  
+  /**
+   * Returns the interval at {@code index} as a closed period, ending on its last milli.
+   */
+  public CPeriod get(int index) {
+    return new CPeriod(new CDate(getStart(index)), new CDate(getEnd(index) - 1));
+  }
+  
+  public List<CPeriod> toPeriods() {
+    List<CPeriod> periods = new ArrayList<>(size());
+    for (int i = 0; i < size(); i++) {
+      periods.add(get(i));
+    }
+    return periods;
+  }
+  
+  public CPeriodSet union(CPeriodSet other) {
+    return combine(this.bounds, other.bounds, UNION);
+  }
+  
+  public CPeriodSet intersect(CPeriodSet other) {
+    return combine(this.bounds, other.bounds, INTERSECTION);
+  }
+  
+  public CPeriodSet difference(CPeriodSet other) {
+    return combine(this.bounds, other.bounds, DIFFERENCE);
+  }
+  
+  public CPeriodSet complement(CPeriod bounds) {
+    return complement(bounds.getStart().getTime(), exclusiveEnd(bounds));
+  }
+  
+  /**
+   * Returns the instants of {@code [from, to)} that are not in this set.
+   */
+  public CPeriodSet complement(long from, long to) {
+    return combine(of(from, to).bounds, this.bounds, DIFFERENCE);
+  }
+  
+  /**
+   * Returns the holes between the first start and the last end.
+   */
+  public CPeriodSet gaps() {
+    int n = this.bounds.length;
+    return n <= 2 ? EMPTY : new CPeriodSet(Arrays.copyOfRange(this.bounds, 1, n - 1));
+  }
+  
+  /**
+   * Returns the number of millis the set covers, the summed width of its half-open intervals. Since the periods of
+   * {@link #toPeriods()} end on their last milli, their summed lengths are one milli per interval less.
+   */
+  public long durationInMillis() {
+    long total = 0;
+    for (int k = 0; k < this.bounds.length; k += 2) {
+      total = Math.addExact(total, Math.subtractExact(this.bounds[k + 1], this.bounds[k]));
+    }
+    return total;
+  }
+  
+  /**
+   * Returns the total time covered by the set. As with {@link CPeriod#toDuration()}, a total longer than about 292
+   * years gives a duration whose {@link CDuration#toNanos()} throws {@link ArithmeticException}.
+   */
+  public CDuration duration() {
+    return CDuration.ofMillis(durationInMillis());
+  }
+  
+  public boolean contains(CDate date) {
+    return contains(date.getTime());
+  }
+  
+  public boolean contains(long time) {
+    int k = upperBound(time);
+    return (k & 1) == 1;
+  }
+  
+  /**
+   * Returns whether the whole of {@code [from, to)} is in this set.
+   */
+  public boolean contains(long from, long to) {
+    if (from >= to) return from == to && contains(from);
+    int k = upperBound(from);
+    return (k & 1) == 1 && to <= this.bounds[k];
+  }
+  
+  public boolean contains(CPeriod period) {
+    return contains(period.getStart().getTime(), exclusiveEnd(period));
+  }
+  
+  /**
+   * Returns whether any instant of {@code [from, to)} is in this set; an empty range is treated as the instant
+   * {@code from}.
+   */
+  public boolean overlaps(long from, long to) {
+    if (from >= to) return from == to && contains(from);
+    int k = upperBound(from);
+    if ((k & 1) == 1) return true;
+    return k < this.bounds.length && this.bounds[k] < to;
+  }
+  
+  public boolean overlaps(CPeriod period) {
+    return overlaps(period.getStart().getTime(), exclusiveEnd(period));
+  }
+  
+  // the closed period [start, end] covers the same millis as the half-open [start, end + 1)
+  private static long exclusiveEnd(CPeriod period) {
+    return Math.addExact(period.getEnd().getTime(), 1);
+  }
+  
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof CPeriodSet that && Arrays.equals(this.bounds, that.bounds);
+  }
+  
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(this.bounds);
+  }
+  
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("CPeriodSet{");
+    for (int k = 0; k < this.bounds.length; k += 2) {
+      if (k > 0) sb.append(", ");
+      sb.append('[').append(new CDate(this.bounds[k])).append(", ").append(new CDate(this.bounds[k + 1])).append(')');
+    }
+    return sb.append('}').toString();
+  }
+  
+  // number of boundaries <= time; odd means time falls inside an interval
+  private int upperBound(long time) {
+    int lo = 0;
+    int hi = this.bounds.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (this.bounds[mid] <= time) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+  
+  private int checkIndex(int index) {
+    if (index < 0 || index >= size()) throw new IndexOutOfBoundsException(index);
+    return index;
+  }
+  
+  /**
+   * Merges two boundary arrays in one pass. After passing {@code i} boundaries of a set, an instant is inside it iff
+   * {@code i} is odd; a boundary is written wherever the combined membership flips.
+   */
+  private static CPeriodSet combine(long[] a, long[] b, int op) {
+    long[] out = new long[a.length + b.length];
+    int count = 0;
+    boolean inside = false;
+    int i = 0;
+    int j = 0;
+    while (i < a.length || j < b.length) {
+      long x = i == a.length ? b[j] : j == b.length ? a[i] : Math.min(a[i], b[j]);
+      if (i < a.length && a[i] == x) i++;
+      if (j < b.length && b[j] == x) j++;
+      boolean inA = (i & 1) == 1;
+      boolean inB = (j & 1) == 1;
+      boolean in = switch (op) {
+        case UNION -> inA || inB;
+        case INTERSECTION -> inA && inB;
+        default -> inA && !inB;
+      };
+      if (in != inside) {
+        out[count++] = x;
+        inside = in;
+      }
+    }
+    return count == 0 ? EMPTY : new CPeriodSet(count == out.length ? out : Arrays.copyOf(out, count));
+  }
+}
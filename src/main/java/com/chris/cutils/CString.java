@@ -1,6 +1,7 @@
 package com.chris.cutils;
 
-import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Locale;
 
 public class CString {
   
@@ -22,8 +23,36 @@ public class CString {
     return input == null || input.isEmpty();
   }
   
+  public static boolean isNullOrEmpty(CharSequence input) {
+    return input == null || input.length() == 0;
+  }
+  
   public static boolean isNullOrBlank(String input) {
-    return input == null || input.trim().isEmpty();
+    return isNullOrBlank((CharSequence) input);
+  }
+  
+  /**
+   * Checks whether the input is null or only made of characters up to {@code ' '}, the ones {@link String#trim()}
+   * removes, without creating a trimmed copy.
+   */
+  public static boolean isNullOrBlank(CharSequence input) {
+    if (input == null) return true;
+    for (int i = 0, n = input.length(); i < n; i++) {
+      if (input.charAt(i) > ' ') return false;
+    }
+    return true;
+  }
+  
+  /**
+   * Byte version of {@link #isNullOrBlank(CharSequence)} for ISO-8859-1 or UTF-8 text: in both encodings the
+   * characters up to {@code ' '} are single bytes, and every byte of a multibyte UTF-8 character is above them.
+   */
+  public static boolean isNullOrBlank(byte[] bytes, int offset, int length) {
+    if (bytes == null) return true;
+    for (int i = offset, end = offset + length; i < end; i++) {
+      if ((bytes[i] & 0xFF) > ' ') return false;
+    }
+    return true;
   }
   
   /**
@@ -34,7 +63,39 @@ public class CString {
    */
   public static String capitalize(String str) {
     if (str == null || str.isEmpty()) return str;
-    return str.substring(0, 1).toUpperCase() + str.substring(1).toLowerCase();
+    if (!isAsciiCaseSafe(str)) return str.substring(0, 1).toUpperCase() + str.substring(1).toLowerCase();
+    char[] chars = new char[str.length()];
+    capitalizeAscii(str, chars, 0);
+    return new String(chars);
+  }
+  
+  /**
+   * Appends the {@link #capitalize(String) capitalized} input to {@code out}; appends nothing if it is null.
+   */
+  public static void capitalizeTo(CharSequence str, StringBuilder out) {
+    if (str == null || str.length() == 0) return;
+    if (!isAsciiCaseSafe(str)) {
+      out.append(capitalize(str.toString()));
+      return;
+    }
+    int start = out.length();
+    out.setLength(start + str.length());
+    for (int i = 0, n = str.length(); i < n; i++) {
+      char c = str.charAt(i);
+      out.setCharAt(start + i, i == 0 ? toUpperAscii(c) : toLowerAscii(c));
+    }
+  }
+  
+  /**
+   * Writes the {@link #capitalize(String) capitalized} input into {@code dest} at {@code offset} and returns the
+   * offset after it. Outside ASCII the result can be longer than the input ({@code "ß"} becomes {@code "SS"}).
+   */
+  public static int capitalizeTo(CharSequence str, char[] dest, int offset) {
+    if (str == null || str.length() == 0) return offset;
+    if (isAsciiCaseSafe(str)) return capitalizeAscii(str, dest, offset);
+    String capitalized = capitalize(str.toString());
+    capitalized.getChars(0, capitalized.length(), dest, offset);
+    return offset + capitalized.length();
   }
   
   /**
@@ -47,11 +108,54 @@ public class CString {
    */
   public static String uncapitalize(String str) {
     if (str == null || str.isEmpty()) return str;
-    return str.substring(0, 1).toLowerCase() + str.substring(1);
+    char first = str.charAt(0);
+    if (!isAsciiCaseSafe(first)) return str.substring(0, 1).toLowerCase() + str.substring(1);
+    if (first < 'A' || first > 'Z') return str;
+    char[] chars = str.toCharArray();
+    chars[0] = toLowerAscii(first);
+    return new String(chars);
+  }
+  
+  /**
+   * Appends the {@link #uncapitalize(String) uncapitalized} input to {@code out}; appends nothing if it is null.
+   */
+  public static void uncapitalizeTo(CharSequence str, StringBuilder out) {
+    if (str == null || str.length() == 0) return;
+    char first = str.charAt(0);
+    if (isAsciiCaseSafe(first)) {
+      out.append(toLowerAscii(first));
+    } else {
+      out.append(String.valueOf(first).toLowerCase());
+    }
+    out.append(str, 1, str.length());
   }
   
   public static boolean isNumeric(String str) {
-    return str != null && str.matches("\\d+");
+    return isNumeric((CharSequence) str);
+  }
+  
+  /**
+   * Checks whether the input is a non-empty run of ASCII digits, like matching {@code \d+}, in a single pass.
+   */
+  public static boolean isNumeric(CharSequence str) {
+    if (str == null || str.length() == 0) return false;
+    for (int i = 0, n = str.length(); i < n; i++) {
+      char c = str.charAt(i);
+      if (c < '0' || c > '9') return false;
+    }
+    return true;
+  }
+  
+  /**
+   * Byte version of {@link #isNumeric(CharSequence)} for ISO-8859-1 or UTF-8 text.
+   */
+  public static boolean isNumeric(byte[] bytes, int offset, int length) {
+    if (bytes == null || length <= 0) return false;
+    for (int i = offset, end = offset + length; i < end; i++) {
+      byte b = bytes[i];
+      if (b < '0' || b > '9') return false;
+    }
+    return true;
   }
   
   /**
@@ -69,22 +173,125 @@ public class CString {
   public static String padLeft(String str, int length, char padChar) {
     if (str == null) str = "";
     if (str.length() >= length) return str;
-    return String.valueOf(padChar).repeat(length - str.length()) + str;
+    char[] chars = new char[length];
+    padLeftTo(str, length, padChar, chars, 0);
+    return new String(chars);
   }
   
   public static String padRight(String str, int length, char padChar) {
     if (str == null) str = "";
     if (str.length() >= length) return str;
-    return str + String.valueOf(padChar).repeat(length - str.length());
+    char[] chars = new char[length];
+    padRightTo(str, length, padChar, chars, 0);
+    return new String(chars);
   }
   
+  /**
+   * Appends the input to {@code out}, preceded by as many {@code padChar} as needed to reach {@code length}
+   * characters. A null input is treated as an empty string.
+   */
+  public static void padLeftTo(CharSequence str, int length, char padChar, StringBuilder out) {
+    int n = str == null ? 0 : str.length();
+    for (int i = n; i < length; i++) {
+      out.append(padChar);
+    }
+    if (str != null) out.append(str);
+  }
+  
+  public static void padRightTo(CharSequence str, int length, char padChar, StringBuilder out) {
+    int n = str == null ? 0 : str.length();
+    if (str != null) out.append(str);
+    for (int i = n; i < length; i++) {
+      out.append(padChar);
+    }
+  }
+  
+  /**
+   * Writes the left-padded input into {@code dest} at {@code offset} and returns the offset after it.
+   */
+  public static int padLeftTo(CharSequence str, int length, char padChar, char[] dest, int offset) {
+    int n = str == null ? 0 : str.length();
+    int pad = Math.max(length - n, 0);
+    Arrays.fill(dest, offset, offset + pad, padChar);
+    copy(str, n, dest, offset + pad);
+    return offset + pad + n;
+  }
+  
+  public static int padRightTo(CharSequence str, int length, char padChar, char[] dest, int offset) {
+    int n = str == null ? 0 : str.length();
+    int pad = Math.max(length - n, 0);
+    copy(str, n, dest, offset);
+    Arrays.fill(dest, offset + n, offset + n + pad, padChar);
+    return offset + n + pad;
+  }
+  
+  /**
+   * Writes {@code bytes[offset, offset + length)} left-padded to {@code width} bytes into {@code dest} at
+   * {@code destOffset}, for fixed-width ISO-8859-1 records, and returns the offset after it.
+   */
+  public static int padLeftTo(byte[] bytes, int offset, int length, int width, byte pad, byte[] dest, int destOffset) {
+    int padding = Math.max(width - length, 0);
+    Arrays.fill(dest, destOffset, destOffset + padding, pad);
+    System.arraycopy(bytes, offset, dest, destOffset + padding, length);
+    return destOffset + padding + length;
+  }
+  
+  public static int padRightTo(byte[] bytes, int offset, int length, int width, byte pad, byte[] dest, int destOffset) {
+    int padding = Math.max(width - length, 0);
+    System.arraycopy(bytes, offset, dest, destOffset, length);
+    Arrays.fill(dest, destOffset + length, destOffset + length + padding, pad);
+    return destOffset + length + padding;
+  }
+  
+  /**
+   * Returns a random alphanumeric string from the shared {@link CTokenGenerator#secure() secure generator}.
+   */
   public static String randomString(int length) {
-    final String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
-    SecureRandom random = new SecureRandom();
-    StringBuilder sb = new StringBuilder(length);
-    for (int i = 0; i < length; i++) {
-      sb.append(chars.charAt(random.nextInt(chars.length())));
+    return CTokenGenerator.secure().next(length);
+  }
+  
+  private static void copy(CharSequence str, int length, char[] dest, int offset) {
+    if (str instanceof String string) {
+      string.getChars(0, length, dest, offset);
+    } else {
+      for (int i = 0; i < length; i++) {
+        dest[offset + i] = str.charAt(i);
+      }
+    }
+  }
+  
+  private static int capitalizeAscii(CharSequence str, char[] dest, int offset) {
+    int n = str.length();
+    dest[offset] = toUpperAscii(str.charAt(0));
+    for (int i = 1; i < n; i++) {
+      dest[offset + i] = toLowerAscii(str.charAt(i));
+    }
+    return offset + n;
+  }
+  
+  // String.toUpperCase()/toLowerCase() only differ from plain ASCII case mapping outside ASCII and, for 'i' and 'I',
+  // in Turkish and Azerbaijani
+  private static boolean isAsciiCaseSafe(CharSequence str) {
+    for (int i = 0, n = str.length(); i < n; i++) {
+      if (str.charAt(i) >= 0x80) return false;
     }
-    return sb.toString();
+    return !isTurkic();
+  }
+  
+  private static boolean isAsciiCaseSafe(char c) {
+    return c < 0x80 && ((c != 'I' && c != 'i') || !isTurkic());
+  }
+  
+  private static boolean isTurkic() {
+    String language = Locale.getDefault().getLanguage();
+    return language.equals("tr") || language.equals("az");
+  }
+  
+  private static char toUpperAscii(char c) {
+    return c >= 'a' && c <= 'z' ? (char) (c - 32) : c;
+  }
+  
+  private static char toLowerAscii(char c) {
+    return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
   }
 }
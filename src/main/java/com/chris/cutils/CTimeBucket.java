@@ -0,0 +1,123 @@
+package com.chris.cutils;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * A bucket width for grouping UTC epoch-millis times: either a fixed number of millis or a number of calendar months.
+ * <p>
+ * Fixed buckets are aligned to the epoch, except whole weeks, which start on Monday. Month buckets are aligned to
+ * January of year 0, so widths that divide 12, such as {@link #QUARTER}, start in the same months every year, while
+ * others, such as {@code ofMonths(5)}, drift from year to year. Truncating and ceiling {@code long} times allocates
+ * nothing.
+ */
+public final class CTimeBucket {
+  
+  public static final CTimeBucket SECOND = ofMillis(CDate.SECOND);
+  public static final CTimeBucket MINUTE = ofMillis(CDate.MINUTE);
+  public static final CTimeBucket FIFTEEN_MINUTES = ofMillis(15L * CDate.MINUTE);
+  public static final CTimeBucket HOUR = ofMillis(CDate.HOUR);
+  public static final CTimeBucket DAY = ofMillis(CDate.DAY_IN_MS);
+  public static final CTimeBucket WEEK = ofWeeks(1);
+  public static final CTimeBucket MONTH = ofMonths(1);
+  public static final CTimeBucket QUARTER = ofMonths(3);
+  public static final CTimeBucket YEAR = ofMonths(12);
+  
+  private static final long WEEK_IN_MS = 7 * CDate.DAY_IN_MS;
+  // 1970-01-05, the first Monday after the epoch
+  private static final long MONDAY_ORIGIN = 4 * CDate.DAY_IN_MS;
+  
+  private final long millis;
+  private final long origin;
+  private final int months;
+  
+  private CTimeBucket(long millis, long origin, int months) {
+    this.millis = millis;
+    this.origin = origin;
+    this.months = months;
+  }
+  
+  public static CTimeBucket ofMillis(long millis) {
+    if (millis <= 0) throw new IllegalArgumentException("Bucket width must be positive: " + millis + "ms");
+    return new CTimeBucket(millis, 0, 0);
+  }
+  
+  public static CTimeBucket ofWeeks(int weeks) {
+    if (weeks <= 0) throw new IllegalArgumentException("Bucket width must be positive: " + weeks + " weeks");
+    return new CTimeBucket(weeks * WEEK_IN_MS, MONDAY_ORIGIN, 0);
+  }
+  
+  public static CTimeBucket ofMonths(int months) {
+    if (months <= 0) throw new IllegalArgumentException("Bucket width must be positive: " + months + " months");
+    return new CTimeBucket(0, 0, months);
+  }
+  
+  public static CTimeBucket of(long amount, ChronoUnit unit) {
+    return switch (unit) {
+      case WEEKS -> ofWeeks(Math.toIntExact(amount));
+      case MONTHS -> ofMonths(Math.toIntExact(amount));
+      case YEARS -> ofMonths(Math.toIntExact(Math.multiplyExact(amount, 12)));
+      case DECADES -> ofMonths(Math.toIntExact(Math.multiplyExact(amount, 120)));
+      case CENTURIES -> ofMonths(Math.toIntExact(Math.multiplyExact(amount, 1200)));
+      case MILLENNIA -> ofMonths(Math.toIntExact(Math.multiplyExact(amount, 12000)));
+      default -> ofMillis(Math.multiplyExact(amount, unit.getDuration().toMillis()));
+    };
+  }
+  
+  public boolean isCalendar() {
+    return this.months != 0;
+  }
+  
+  /**
+   * Returns the start of the bucket containing {@code time}.
+   */
+  public long truncate(long time) {
+    if (this.months == 0) return time - Math.floorMod(time - this.origin, this.millis);
+    long monthCount = CCalendar.monthCount(CCalendar.civil(CCalendar.epochDay(time)));
+    return CCalendar.startOfMonth(monthCount - Math.floorMod(monthCount, this.months));
+  }
+  
+  /**
+   * Returns {@code time} if it starts a bucket, otherwise the start of the next bucket.
+   */
+  public long ceil(long time) {
+    long start = truncate(time);
+    return start == time ? time : next(start);
+  }
+  
+  /**
+   * Returns the start of the bucket after the one starting at {@code start}.
+   */
+  public long next(long start) {
+    if (this.months == 0) return Math.addExact(start, this.millis);
+    long monthCount = CCalendar.monthCount(CCalendar.civil(CCalendar.epochDay(start)));
+    return CCalendar.startOfMonth(monthCount + this.months);
+  }
+  
+  public CDate truncate(CDate date) {
+    return new CDate(truncate(date.getTime()));
+  }
+  
+  public CDate ceil(CDate date) {
+    return new CDate(ceil(date.getTime()));
+  }
+  
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof CTimeBucket that)) return false;
+    
+    return millis == that.millis && origin == that.origin && months == that.months;
+  }
+  
+  @Override
+  public int hashCode() {
+    int result = Long.hashCode(millis);
+    result = 31 * result + Long.hashCode(origin);
+    result = 31 * result + months;
+    return result;
+  }
+  
+  @Override
+  public String toString() {
+    return "CTimeBucket{" + (months == 0 ? millis + "ms" : months + " months") + '}';
+  }
+}
@@ -0,0 +1,246 @@
+package com.chris.cutils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent time-series rollup: the count, sum, minimum and maximum of {@link CDecimal} samples per
+ * {@link CTimeBucket} bucket.
+ * <p>
+ * Buckets are kept in a {@link ConcurrentHashMap} keyed by bucket start, and the last bucket used is cached in a
+ * volatile field, so samples arriving roughly in time order skip both the truncation and the map lookup. Each bucket
+ * sums into a {@link CDecimalAdder}, counts into a {@link LongAdder} and keeps its minimum and maximum with
+ * compare-and-set, so any number of threads can record at once without locking.
+ * <p>
+ * {@link #snapshot()} and {@link #drainBefore(long)} return the buckets as a columnar {@link Series}. Like
+ * {@code LongAdder.sum()}, a snapshot is not atomic while samples are being recorded. A drain is exact: it retires
+ * each bucket, waits for the samples already being recorded into it, and a sample arriving after that starts a new
+ * bucket, so no sample is lost or reported twice.
+ */
+public final class CTimeRollup {
+  
+  private static final Comparator<Cell> START_ORDER = Comparator.comparingLong(cell -> cell.start);
+  // longs between two writer slots, so that each slot sits on its own cache line
+  private static final int STRIDE = 8;
+  private static final int WRITER_SLOTS =
+      Math.max(2, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+  
+  private final CTimeBucket bucket;
+  private final int scale;
+  private final ConcurrentHashMap<Long, Cell> cells = new ConcurrentHashMap<>();
+  private volatile Cell last;
+  
+  /**
+   * Creates a rollup summing at the given scale; samples with a larger scale are still summed exactly, but more
+   * slowly.
+   */
+  public CTimeRollup(CTimeBucket bucket, int scale) {
+    this.bucket = Objects.requireNonNull(bucket);
+    this.scale = scale;
+  }
+  
+  public CTimeBucket getBucket() {
+    return bucket;
+  }
+  
+  public void record(CDate date, CDecimal value) {
+    record(date.getTime(), value);
+  }
+  
+  public void record(long time, CDecimal value) {
+    Objects.requireNonNull(value);
+    while (!cell(time).tryRecord(value)) {
+      // the bucket was drained meanwhile, record into a new one
+    }
+  }
+  
+  /**
+   * Returns the number of buckets holding samples.
+   */
+  public int size() {
+    return this.cells.size();
+  }
+  
+  public void clear() {
+    drain(Long.MAX_VALUE);
+  }
+  
+  /**
+   * Returns every bucket, oldest first, leaving them in place.
+   */
+  public Series snapshot() {
+    List<Cell> list = new ArrayList<>(this.cells.values());
+    list.sort(START_ORDER);
+    return new Series(list);
+  }
+  
+  /**
+   * Removes and returns the buckets ending at or before {@code time}, oldest first.
+   */
+  public Series drainBefore(long time) {
+    return new Series(drain(time));
+  }
+  
+  public Series drainBefore(CDate date) {
+    return drainBefore(date.getTime());
+  }
+  
+  private List<Cell> drain(long time) {
+    List<Cell> drained = new ArrayList<>();
+    for (Cell cell : this.cells.values()) {
+      if (cell.end > time) continue;
+      // retire before removing, so that recorders stop using the cached cell
+      cell.retired = true;
+      // a concurrent drain may have removed it first, and then that drain reports it
+      if (this.cells.remove(cell.start, cell)) drained.add(cell);
+    }
+    for (Cell cell : drained) {
+      cell.awaitWriters();
+    }
+    drained.sort(START_ORDER);
+    return drained;
+  }
+  
+  private Cell cell(long time) {
+    Cell cell = this.last;
+    if (cell != null && time >= cell.start && time < cell.end && !cell.retired) return cell;
+    long start = this.bucket.truncate(time);
+    cell = this.cells.computeIfAbsent(start, s -> new Cell(s, this.bucket.next(s), this.scale));
+    this.last = cell;
+    return cell;
+  }
+  
+  private static final class Cell {
+    
+    private final long start;
+    private final long end;
+    private final CDecimalAdder sum;
+    private final LongAdder count = new LongAdder();
+    private final AtomicReference<CDecimal> min = new AtomicReference<>();
+    private final AtomicReference<CDecimal> max = new AtomicReference<>();
+    // recorders inside tryRecord, counted in a slot chosen by thread id so that each thread uses the same slot
+    private final AtomicLongArray writers = new AtomicLongArray(WRITER_SLOTS * STRIDE);
+    private volatile boolean retired;
+    
+    private Cell(long start, long end, int scale) {
+      this.start = start;
+      this.end = end;
+      this.sum = new CDecimalAdder(scale);
+    }
+    
+    /**
+     * Records a sample unless the cell is retired. A recorder announces itself before checking, so a drain that
+     * retires the cell afterwards sees it in {@link #awaitWriters()}.
+     */
+    private boolean tryRecord(CDecimal value) {
+      int slot = ((int) (Thread.currentThread().getId() * 0x9E3779B97F4A7C15L >>> 32) & (WRITER_SLOTS - 1)) * STRIDE;
+      this.writers.getAndIncrement(slot);
+      try {
+        if (this.retired) return false;
+        record(value);
+        return true;
+      } finally {
+        this.writers.getAndDecrement(slot);
+      }
+    }
+    
+    private void awaitWriters() {
+      for (int slot = 0; slot < this.writers.length(); slot += STRIDE) {
+        while (this.writers.get(slot) != 0) {
+          Thread.onSpinWait();
+        }
+      }
+    }
+    
+    private void record(CDecimal value) {
+      this.sum.add(value);
+      this.count.increment();
+      CDecimal current;
+      while (((current = this.min.get()) == null || value.compareTo(current) < 0)
+          && !this.min.compareAndSet(current, value)) {
+        // another thread moved the minimum, check again
+      }
+      while (((current = this.max.get()) == null || value.compareTo(current) > 0)
+          && !this.max.compareAndSet(current, value)) {
+        // another thread moved the maximum, check again
+      }
+    }
+  }
+  
+  /**
+   * Finished buckets as parallel columns, oldest first: bucket start, sample count, and {@link CDecimalArray} sums,
+   * minimums and maximums, each column using the largest scale among its values.
+   */
+  public static final class Series {
+    
+    private final long[] starts;
+    private final long[] counts;
+    private final CDecimalArray sums;
+    private final CDecimalArray mins;
+    private final CDecimalArray maxs;
+    
+    private Series(List<Cell> cells) {
+      // a bucket created by a sample still being recorded has nothing to report yet
+      cells.removeIf(cell -> cell.max.get() == null);
+      int n = cells.size();
+      this.starts = new long[n];
+      this.counts = new long[n];
+      CDecimal[] sumValues = new CDecimal[n];
+      CDecimal[] minValues = new CDecimal[n];
+      CDecimal[] maxValues = new CDecimal[n];
+      for (int i = 0; i < n; i++) {
+        Cell cell = cells.get(i);
+        this.starts[i] = cell.start;
+        this.counts[i] = cell.count.sum();
+        sumValues[i] = cell.sum.sum();
+        minValues[i] = cell.min.get();
+        maxValues[i] = cell.max.get();
+      }
+      this.sums = CDecimalArray.of(sumValues);
+      this.mins = CDecimalArray.of(minValues);
+      this.maxs = CDecimalArray.of(maxValues);
+    }
+    
+    public int size() {
+      return starts.length;
+    }
+    
+    public long getStart(int index) {
+      return starts[index];
+    }
+    
+    public CDate getStartDate(int index) {
+      return new CDate(starts[index]);
+    }
+    
+    public long getCount(int index) {
+      return counts[index];
+    }
+    
+    public long[] starts() {
+      return starts.clone();
+    }
+    
+    public long[] counts() {
+      return counts.clone();
+    }
+    
+    public CDecimalArray sums() {
+      return sums;
+    }
+    
+    public CDecimalArray mins() {
+      return mins;
+    }
+    
+    public CDecimalArray maxs() {
+      return maxs;
+    }
+  }
+}
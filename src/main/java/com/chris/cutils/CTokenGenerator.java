@@ -0,0 +1,184 @@
+package com.chris.cutils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates random tokens (session ids, idempotency keys, test data) over a fixed alphabet.
+ * <p>
+ * Each thread keeps its own random source, created and seeded once, and draws random bytes from it in bulk. Characters
+ * take {@code ceil(log2(alphabet size))} bits each (6 bits for the 62-character alphanumeric alphabet); values past the
+ * end of the alphabet are rejected and redrawn, so every character is equally likely.
+ * <p>
+ * {@link #secure(String)} generators use {@link SecureRandom} and are suitable for secrets. {@link #insecure(String)}
+ * generators use {@link SplittableRandom}, are much faster and must only be used where predictability does not
+ * matter, such as test data. Instances are thread-safe.
+ */
+public final class CTokenGenerator {
+  
+  public static final String ALPHANUMERIC = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+  public static final String HEX = "0123456789abcdef";
+  public static final String URL_SAFE = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+  
+  private static final int BUFFER_SIZE = 256;
+  private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  
+  private static final CTokenGenerator SECURE_ALPHANUMERIC = secure(ALPHANUMERIC);
+  
+  private final char[] alphabet;
+  private final int bits;
+  private final int mask;
+  private final ThreadLocal<Source> sources;
+  
+  private CTokenGenerator(String alphabet, ThreadLocal<Source> sources) {
+    int length = alphabet.length();
+    if (length < 2 || length > 256) throw new IllegalArgumentException("Alphabet must have 2 to 256 characters");
+    if (alphabet.chars().distinct().count() != length) {
+      throw new IllegalArgumentException("Alphabet has duplicate characters");
+    }
+    this.alphabet = alphabet.toCharArray();
+    this.bits = 32 - Integer.numberOfLeadingZeros(length - 1);
+    this.mask = (1 << this.bits) - 1;
+    this.sources = sources;
+  }
+  
+  /**
+   * Returns the shared cryptographically secure generator over {@link #ALPHANUMERIC}.
+   */
+  public static CTokenGenerator secure() {
+    return SECURE_ALPHANUMERIC;
+  }
+  
+  public static CTokenGenerator secure(String alphabet) {
+    return new CTokenGenerator(alphabet, ThreadLocal.withInitial(() -> new Source(new SecureRandom())));
+  }
+  
+  /**
+   * Returns a fast, non-cryptographic generator. Never use it for secrets.
+   */
+  public static CTokenGenerator insecure(String alphabet) {
+    return insecure(alphabet, new SplittableRandom());
+  }
+  
+  /**
+   * Returns a fast, non-cryptographic generator whose threads draw from streams split off a root seeded with
+   * {@code seed}; a single thread therefore sees a reproducible sequence.
+   */
+  public static CTokenGenerator insecure(String alphabet, long seed) {
+    return insecure(alphabet, new SplittableRandom(seed));
+  }
+  
+  private static CTokenGenerator insecure(String alphabet, SplittableRandom root) {
+    return new CTokenGenerator(alphabet, ThreadLocal.withInitial(() -> {
+      synchronized (root) {
+        return new Source(root.split());
+      }
+    }));
+  }
+  
+  public String getAlphabet() {
+    return new String(this.alphabet);
+  }
+  
+  public String next(int length) {
+    char[] token = new char[checkLength(length)];
+    nextChars(token, 0, length);
+    return new String(token);
+  }
+  
+  public void nextChars(char[] dest, int offset, int length) {
+    checkLength(length);
+    if (offset < 0 || offset > dest.length - length) throw new IndexOutOfBoundsException(offset);
+    Source source = this.sources.get();
+    for (int i = offset, end = offset + length; i < end; i++) {
+      dest[i] = this.alphabet[nextIndex(source)];
+    }
+  }
+  
+  /**
+   * Fills every array of {@code tokens} with a token of its length.
+   */
+  public void fill(char[][] tokens) {
+    Source source = this.sources.get();
+    for (char[] token : tokens) {
+      for (int i = 0; i < token.length; i++) {
+        token[i] = this.alphabet[nextIndex(source)];
+      }
+    }
+  }
+  
+  /**
+   * Returns {@code count} new tokens of {@code length} characters each.
+   */
+  public char[][] next(int count, int length) {
+    char[][] tokens = new char[count][checkLength(length)];
+    fill(tokens);
+    return tokens;
+  }
+  
+  /**
+   * Writes {@code count} tokens of {@code length} characters back to back into {@code out} at its position, one
+   * byte per character. The alphabet must be ISO-8859-1.
+   *
+   * @throws BufferOverflowException if {@code out} has less than {@code count * length} bytes remaining.
+   */
+  public void writeTo(ByteBuffer out, int count, int length) {
+    checkLength(length);
+    for (char c : this.alphabet) {
+      if (c > 0xFF) throw new IllegalStateException("Alphabet is not ISO-8859-1");
+    }
+    long total = (long) count * length;
+    if (count < 0 || total > out.remaining()) throw new BufferOverflowException();
+    Source source = this.sources.get();
+    for (long i = 0; i < total; i++) {
+      out.put((byte) this.alphabet[nextIndex(source)]);
+    }
+  }
+  
+  private int nextIndex(Source source) {
+    for (;;) {
+      if (source.poolBits < this.bits) source.refill();
+      int index = (int) source.pool & this.mask;
+      source.pool >>>= this.bits;
+      source.poolBits -= this.bits;
+      if (index < this.alphabet.length) return index;
+    }
+  }
+  
+  private static int checkLength(int length) {
+    if (length < 0) throw new IllegalArgumentException("Negative length: " + length);
+    return length;
+  }
+  
+  /**
+   * Per-thread random source: bytes are drawn {@value #BUFFER_SIZE} at a time and consumed 64 bits at a time.
+   */
+  private static final class Source {
+    
+    private final RandomGenerator random;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = BUFFER_SIZE;
+    private long pool;
+    private int poolBits;
+    
+    Source(RandomGenerator random) {
+      this.random = random;
+    }
+    
+    void refill() {
+      if (this.position == BUFFER_SIZE) {
+        this.random.nextBytes(this.buffer);
+        this.position = 0;
+      }
+      this.pool = (long) LONGS.get(this.buffer, this.position);
+      this.position += Long.BYTES;
+      this.poolBits = Long.SIZE;
+    }
+  }
+}
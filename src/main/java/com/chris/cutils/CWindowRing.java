@@ -0,0 +1,164 @@
+package com.chris.cutils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * The ring of pre-aggregated sub-buckets behind {@link CDecimalWindow} and {@link CDurationWindow}: a count and a
+ * {@code long} sum per sub-bucket, plus running totals over the ring, in fixed memory.
+ * <p>
+ * The window is rounded up to a whole number of sub-buckets and covers the sub-bucket containing "now" and those
+ * before it. A record newer than the newest sub-bucket moves the ring forward, clearing the sub-buckets it passes, so
+ * recording is {@code O(1)} amortized while time moves forward. A query subtracts the sub-buckets that expired since
+ * the last record from the running totals, so it visits at most the ring and usually nothing.
+ * <p>
+ * Writes run under a sequence lock: the writer makes the version odd, updates the ring, then makes the version even
+ * again, and readers retry if the version moved under them, so reads never block. A single writer needs no lock at
+ * all; otherwise writers synchronize on the ring.
+ */
+final class CWindowRing {
+  
+  private static final VarHandle VERSION;
+  
+  static {
+    try {
+      VERSION = MethodHandles.lookup().findVarHandle(CWindowRing.class, "version", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+  
+  private static final long EMPTY = Long.MIN_VALUE;
+  
+  private final long granularity;
+  private final long window;
+  private final int size;
+  private final boolean singleWriter;
+  private final CClock clock;
+  private final long[] counts;
+  private final long[] sums;
+  // start of the newest sub-bucket, EMPTY until the first record
+  private long head = EMPTY;
+  private long totalCount;
+  private long totalSum;
+  private volatile long version;
+  
+  CWindowRing(CDuration window, CDuration granularity, boolean singleWriter, CClock clock) {
+    long g = granularity.toMillis();
+    long w = window.toMillis();
+    if (g <= 0) throw new IllegalArgumentException("Granularity must be at least one millisecond: " + granularity);
+    if (w < g) throw new IllegalArgumentException("Window " + window + " is shorter than granularity " + granularity);
+    this.granularity = g;
+    this.size = Math.toIntExact((w + g - 1) / g);
+    this.window = this.size * g;
+    this.singleWriter = singleWriter;
+    this.clock = clock;
+    this.counts = new long[this.size];
+    this.sums = new long[this.size];
+  }
+  
+  long getWindowMillis() {
+    return window;
+  }
+  
+  long getGranularityMillis() {
+    return granularity;
+  }
+  
+  /**
+   * Returns the count and the sum of the window ending at the time of the supplied clock, or without a clock at the
+   * latest record.
+   */
+  long[] read() {
+    return read(this.clock != null ? this.clock.currentTimeMillis() : EMPTY);
+  }
+  
+  long clockTime() {
+    if (this.clock == null) throw new IllegalStateException("No clock was supplied to time the record");
+    return this.clock.currentTimeMillis();
+  }
+  
+  /**
+   * Adds a value at the given time; returns false, dropping the value, if that time has already left the window.
+   */
+  boolean record(long time, long value) {
+    if (this.singleWriter) return write(time, value);
+    synchronized (this) {
+      return write(time, value);
+    }
+  }
+  
+  private boolean write(long time, long value) {
+    long start = time - Math.floorMod(time, this.granularity);
+    if (this.head != EMPTY && start <= this.head - this.window) return false;
+    long v = this.version;
+    VERSION.setOpaque(this, v + 1);
+    VarHandle.storeStoreFence();
+    try {
+      if (this.head == EMPTY || start > this.head) advance(start);
+      int i = index(start);
+      // both sums are checked before either is stored, so an overflow leaves the ring consistent
+      long sum = Math.addExact(this.sums[i], value);
+      long total = Math.addExact(this.totalSum, value);
+      this.sums[i] = sum;
+      this.counts[i]++;
+      this.totalSum = total;
+      this.totalCount++;
+    } finally {
+      VERSION.setRelease(this, v + 2);
+    }
+    return true;
+  }
+  
+  private void advance(long start) {
+    if (this.head == EMPTY || start - this.head >= this.window) {
+      Arrays.fill(this.counts, 0);
+      Arrays.fill(this.sums, 0);
+      this.totalCount = 0;
+      this.totalSum = 0;
+    } else {
+      for (long bucket = this.head + this.granularity; bucket <= start; bucket += this.granularity) {
+        int i = index(bucket);
+        this.totalCount -= this.counts[i];
+        this.totalSum -= this.sums[i];
+        this.counts[i] = 0;
+        this.sums[i] = 0;
+      }
+    }
+    this.head = start;
+  }
+  
+  /**
+   * Returns the count and the sum of the window ending at {@code now}. A time before the newest sub-bucket reads the
+   * window ending at that sub-bucket, as the ring keeps nothing older.
+   */
+  long[] read(long now) {
+    for (;;) {
+      long v = (long) VERSION.getAcquire(this);
+      if ((v & 1) == 0) {
+        long h = this.head;
+        long start = now == EMPTY ? h : now - Math.floorMod(now, this.granularity);
+        long count = 0;
+        long sum = 0;
+        if (h != EMPTY && start - h < this.window) {
+          count = this.totalCount;
+          sum = this.totalSum;
+          for (long bucket = h - this.window + this.granularity; bucket <= start - this.window;
+               bucket += this.granularity) {
+            int i = index(bucket);
+            count -= this.counts[i];
+            sum -= this.sums[i];
+          }
+        }
+        VarHandle.loadLoadFence();
+        if ((long) VERSION.getOpaque(this) == v) return new long[]{count, sum};
+      }
+      Thread.onSpinWait();
+    }
+  }
+  
+  private int index(long bucket) {
+    return Math.floorMod(bucket / this.granularity, this.size);
+  }
+}